@@ -0,0 +1,48 @@
+package com.backend.streetmed_backend.benchmark;
+
+import com.backend.streetmed_backend.service.email.EmailTemplateEngine;
+import com.backend.streetmed_backend.service.email.RenderedEmail;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render throughput of the compiled email templates, for the mails that go out in bulk
+ * (round reminders and cancellations). Run with -prof gc to see the bytes allocated per render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    @Param({"round-reminder", "round-cancellation", "round-signup-confirmation"})
+    private String template;
+
+    private EmailTemplateEngine engine;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setUp() throws IOException {
+        engine = new EmailTemplateEngine();
+
+        data = new HashMap<>();
+        data.put("roundTitle", "Oakland Evening Outreach");
+        data.put("startTime", "2026-10-19T18:00");
+        data.put("location", "Schenley Plaza, Pittsburgh <PA>");
+        data.put("specialRole", "Team Lead");
+        data.put("status", "CONFIRMED");
+        data.put("confirmed", true);
+        data.put("waitlisted", false);
+    }
+
+    @Benchmark
+    public RenderedEmail render() {
+        return engine.render(template, data);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.backend.streetmed_backend.benchmark;
+
+import com.backend.streetmed_backend.security.EncryptionUtil;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of AES-GCM encrypt and decrypt through EncryptionUtil, for payloads the size
+ * of a login request and of a large order listing. Run with -prof gc to see the bytes
+ * allocated per call (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncryptionUtilBenchmark {
+
+    @Param({"256", "65536"})
+    private int payloadSize;
+
+    private final EncryptionUtil encryptionUtil = new EncryptionUtil();
+    private SecretKey key;
+    private byte[] plaintext;
+    private byte[] ciphertext;
+    private String plaintextString;
+    private String ciphertextString;
+
+    @Setup
+    public void setUp() {
+        SecureRandom random = new SecureRandom();
+        byte[] keyBytes = new byte[32];
+        random.nextBytes(keyBytes);
+        key = new SecretKeySpec(keyBytes, "AES");
+
+        // JSON-like ASCII, so the String and byte[] paths see the same bytes
+        StringBuilder json = new StringBuilder(payloadSize);
+        while (json.length() < payloadSize) {
+            json.append("{\"orderId\":").append(json.length()).append(",\"status\":\"PENDING\"},");
+        }
+        plaintextString = json.substring(0, payloadSize);
+        plaintext = plaintextString.getBytes(StandardCharsets.UTF_8);
+        ciphertext = encryptionUtil.encrypt(plaintext, key);
+        ciphertextString = encryptionUtil.encrypt(plaintextString, key);
+    }
+
+    @Benchmark
+    public byte[] encryptBytes() {
+        return encryptionUtil.encrypt(plaintext, key);
+    }
+
+    @Benchmark
+    public byte[] decryptBytes() {
+        return encryptionUtil.decrypt(ciphertext, key);
+    }
+
+    @Benchmark
+    public String encryptString() {
+        return encryptionUtil.encrypt(plaintextString, key);
+    }
+
+    @Benchmark
+    public String decryptString() {
+        return encryptionUtil.decrypt(ciphertextString, key);
+    }
+}
\ No newline at end of file
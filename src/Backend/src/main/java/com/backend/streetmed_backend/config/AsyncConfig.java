@@ -1,14 +1,18 @@
 package com.backend.streetmed_backend.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
 
     @Bean(name = "authExecutor")
     public Executor authExecutor() {
@@ -51,25 +55,59 @@ public class AsyncConfig {
         return executor;
     }
 
-    @Bean(name = "emailExecutor")
-    public Executor emailExecutor() {
+    @Bean(name = "imageExecutor")
+    public Executor imageExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        // Dedicated thread pool for email operations
-        executor.setCorePoolSize(3);       // Increased from 2
-        executor.setMaxPoolSize(6);        // Increased from 4
-        executor.setQueueCapacity(100);    // Increased from 50
-        executor.setThreadNamePrefix("Email-");
+        // Image resizing is CPU and memory heavy; keep it to a couple of threads
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("Image-");
 
-        // Use a more lenient rejection policy for emails
+        // Missing variants are regenerated on demand, so a rejected task is not lost
         executor.setRejectedExecutionHandler((r, e) -> {
-            // Log the rejection but don't throw an exception
-            // This prevents email failures from affecting the main application
-            System.err.println("Email task rejected: queue full");
+            logger.warn("Image task rejected: queue full");
         });
 
-        // Shutdown configuration
         executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(60); // Give emails more time to complete on shutdown
+        executor.setAwaitTerminationSeconds(20);
+
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "notificationExecutor")
+    public Executor notificationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // Bulk notification jobs (recipient lookups, outbox writes) and direct sends of credential mail
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("Notify-");
+
+        // Run on the caller rather than lose a notification job
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(20);
+
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "keyPairExecutor")
+    public Executor keyPairExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // One background thread keeps the ECDH key pair pool topped up
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("KeyPair-");
+
+        // A refill is already pending or running, so an extra request can be dropped
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+
+        executor.setWaitForTasksToCompleteOnShutdown(false);
 
         executor.initialize();
         return executor;
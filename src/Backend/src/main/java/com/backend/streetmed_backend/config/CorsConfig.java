@@ -49,6 +49,7 @@ public class CorsConfig {
 
         // Allow specific headers needed for your security implementation
         config.addExposedHeader("X-Session-ID");
+        config.addExposedHeader("X-Session-Ticket");
 
         // Set the max age for the preflight request cache (in seconds)
         config.setMaxAge(3600L);
@@ -8,6 +8,8 @@ import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
 
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
 
 @Configuration
 public class MongoConfig {
@@ -27,4 +29,10 @@ public class MongoConfig {
     public MongoTemplate mongoTemplate() {
         return new MongoTemplate(new SimpleMongoClientDatabaseFactory(mongoClient(), databaseName));
     }
+
+    // Cargo image bytes live in GridFS; the cargoImages collection only keeps metadata
+    @Bean
+    public GridFSBucket cargoImageBucket() {
+        return GridFSBuckets.create(mongoTemplate().getDb(), "cargoImageFiles");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.backend.streetmed_backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs EXPLAIN on the hot repository queries at startup and warns when MySQL plans a
+ * full table scan or an extra sort for them.
+ *
+ * The indexes themselves are declared on the entities (@Table indexes) and created by
+ * ddl-auto=update. Small tables may legitimately be scanned, so warnings only matter
+ * once the table holds more than a handful of rows.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.query-plan-check.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryPlanCheck {
+
+    private final Logger logger = LoggerFactory.getLogger(QueryPlanCheck.class);
+
+    // Below this many estimated rows a scan is cheaper than the index and not worth a warning
+    private static final long MIN_ROWS_TO_WARN = 1000;
+
+    /**
+     * SQL equivalents of the hot finders, with representative parameter values.
+     *
+     * The predicates are copied from the repository definitions (OrderRepository,
+     * RoundSignupRepository, RoundsRepository and UserRepositoryImpl) and must be kept
+     * in sync with them, or this check reports on plans the application never runs.
+     */
+    static Map<String, Object[]> hotQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object[]> queries = new LinkedHashMap<>();
+        // OrderRepository.findPendingOrders
+        queries.put("SELECT o.order_id, o.latitude, o.longitude FROM orders o " +
+                        "WHERE o.round_id IS NULL ORDER BY o.request_time ASC",
+                new Object[0]);
+        // OrderRepository.countByRoundId
+        queries.put("SELECT COUNT(o.order_id) FROM orders o WHERE o.round_id = ?",
+                new Object[]{1});
+        // OrderRepository.findByVolunteerIdAndStatusIn, as called by getActiveOrdersByVolunteer
+        queries.put("SELECT o.order_id FROM orders o WHERE o.volunteer_id = ? AND o.status IN (?, ?)",
+                new Object[]{1, "PENDING", "PROCESSING"});
+        // OrderRepository.findOrderPageIds, a later page filtered by status; the page size is the LIMIT
+        queries.put("SELECT o.order_id FROM orders o " +
+                        "WHERE (? IS NULL OR o.status = ?) " +
+                        "AND (? IS NULL OR o.round_id = ?) " +
+                        "AND (? IS NULL OR o.user_id = ?) " +
+                        "AND (? IS NULL OR o.request_time < ? " +
+                        "     OR (o.request_time = ? AND o.order_id < ?)) " +
+                        "ORDER BY o.request_time DESC, o.order_id DESC LIMIT ?",
+                new Object[]{"PENDING", "PENDING", null, null, null, null, now, now, now, 1, 101});
+        // RoundSignupRepository.countConfirmedVolunteersForRound
+        queries.put("SELECT COUNT(rs.signup_id) FROM round_signups rs " +
+                        "WHERE rs.round_id = ? AND rs.status = 'CONFIRMED' AND rs.role = 'VOLUNTEER'",
+                new Object[]{1});
+        // RoundsRepository.findByStartTimeAfterAndStatusOrderByStartTimeAsc
+        queries.put("SELECT r.round_id FROM rounds r WHERE r.start_time > ? AND r.status = ? ORDER BY r.start_time ASC",
+                new Object[]{now, "SCHEDULED"});
+        // UserRepositoryImpl, the first sub-role of each volunteer
+        queries.put("SELECT MIN(v.subrole_id) FROM volunteer_sub_roles v WHERE v.user_id = ?",
+                new Object[]{1});
+        return queries;
+    }
+
+    @Bean
+    CommandLineRunner checkHotQueryPlans(DataSource dataSource) {
+        return args -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            int warnings = 0;
+
+            for (Map.Entry<String, Object[]> query : hotQueries().entrySet()) {
+                try {
+                    List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + query.getKey(), query.getValue());
+                    for (Map<String, Object> step : plan) {
+                        if (needsAttention(step)) {
+                            warnings++;
+                            logger.warn("Query plan for [{}] on table {}: type={}, key={}, rows={}, extra={}",
+                                    query.getKey(), step.get("table"), step.get("type"), step.get("key"),
+                                    step.get("rows"), step.get("Extra"));
+                        }
+                    }
+                } catch (Exception e) {
+                    logger.warn("Could not EXPLAIN [{}]: {}", query.getKey(), e.getMessage());
+                }
+            }
+
+            if (warnings == 0) {
+                logger.info("Query plan check passed for {} hot queries", hotQueries().size());
+            } else {
+                logger.warn("Query plan check found {} full scans or filesorts; check the entity indexes", warnings);
+            }
+        };
+    }
+
+    /**
+     * True for a plan step that scans the whole table or sorts without an index,
+     * once it touches at least MIN_ROWS_TO_WARN rows.
+     */
+    static boolean needsAttention(Map<String, Object> step) {
+        Object rows = step.get("rows");
+        if (!(rows instanceof Number) || ((Number) rows).longValue() < MIN_ROWS_TO_WARN) {
+            return false;
+        }
+        String extra = step.get("Extra") != null ? step.get("Extra").toString() : "";
+        return "ALL".equals(step.get("type")) || extra.contains("Using filesort");
+    }
+}
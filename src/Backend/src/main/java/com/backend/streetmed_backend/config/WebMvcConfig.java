@@ -19,7 +19,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .allowedHeaders("Content-Type", "Authorization", "X-Session-ID",
                         "X-Client-ID", "X-Timestamp", "X-Signature",
                         "Admin-Username", "Authentication-Status")
-                .exposedHeaders("X-Session-ID")
+                .exposedHeaders("X-Session-ID", "X-Session-Ticket")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
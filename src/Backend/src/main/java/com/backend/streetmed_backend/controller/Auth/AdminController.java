@@ -3,9 +3,14 @@ package com.backend.streetmed_backend.controller.Auth;
 import com.backend.streetmed_backend.entity.user_entity.User;
 import com.backend.streetmed_backend.entity.user_entity.UserMetadata;
 import com.backend.streetmed_backend.entity.user_entity.VolunteerSubRole;
+import com.backend.streetmed_backend.security.ECDHService;
+import com.backend.streetmed_backend.security.SessionStore;
+import com.backend.streetmed_backend.service.EmailOutboxDispatcher;
 import com.backend.streetmed_backend.service.EmailService;
 import com.backend.streetmed_backend.service.UserService;
 import com.backend.streetmed_backend.service.VolunteerSubRoleService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,9 +18,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -35,17 +44,31 @@ public class AdminController {
     private static final String ALLOWED_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()-_=+";
     private final SecureRandom random = new SecureRandom();
     private final VolunteerSubRoleService volunteerSubRoleService;
+    private final ObjectMapper objectMapper;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+    private final SessionStore sessionStore;
+    private final ECDHService ecdhService;
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 500;
+    private static final Set<String> DIRECTORY_ROLES = Set.of("CLIENT", "VOLUNTEER", "ADMIN");
 
     @Autowired
     public AdminController(
             UserService userService,
             VolunteerSubRoleService volunteerSubRoleService,
             EmailService emailService,
+            ObjectMapper objectMapper,
+            EmailOutboxDispatcher emailOutboxDispatcher,
+            SessionStore sessionStore,
+            ECDHService ecdhService,
             @Qualifier("authExecutor") Executor authExecutor,
             @Qualifier("readOnlyExecutor") Executor readOnlyExecutor) {
         this.userService = userService;
         this.volunteerSubRoleService = volunteerSubRoleService;
         this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.emailOutboxDispatcher = emailOutboxDispatcher;
+        this.sessionStore = sessionStore;
+        this.ecdhService = ecdhService;
         this.authExecutor = authExecutor;
         this.readOnlyExecutor = readOnlyExecutor;
     }
@@ -159,36 +182,30 @@ public class AdminController {
                     return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
                 }
 
-                List<User> allUsers = userService.getAllUsers();
                 List<Map<String, Object>> clientUsers = new ArrayList<>();
                 List<Map<String, Object>> volunteerUsers = new ArrayList<>();
                 List<Map<String, Object>> adminUsers = new ArrayList<>();
 
-                for (User user : allUsers) {
+                // Users and volunteer sub-roles come back together from one LEFT JOIN
+                userService.forEachDirectoryEntry(null, 0, Integer.MAX_VALUE, entry -> {
                     Map<String, Object> userInfo = new HashMap<>();
-                    userInfo.put("userId", user.getUserId());
-                    userInfo.put("username", user.getUsername());
-                    userInfo.put("email", user.getEmail());
-                    userInfo.put("phone", user.getPhone() != null ? user.getPhone() : "");
-                    userInfo.put("role", user.getRole());
-
-                    // If the user is a volunteer, add the volunteer sub role.
-                    if ("VOLUNTEER".equals(user.getRole())) {
-                        Optional<VolunteerSubRole> subRoleOpt = volunteerSubRoleService.getVolunteerSubRole(user.getUserId());
-                        String volunteerSubRoleStr = subRoleOpt
-                                .map(vsr -> vsr.getSubRole().toString())
-                                .orElse(VolunteerSubRole.SubRoleType.REGULAR.toString());
-                        userInfo.put("volunteerSubRole", volunteerSubRoleStr);
-                        volunteerUsers.add(userInfo);
-                    } else {
-                        switch (user.getRole()) {
-                            case "CLIENT" -> clientUsers.add(userInfo);
-                            case "ADMIN" -> adminUsers.add(userInfo);
-                            default -> {
-                            }
+                    userInfo.put("userId", entry.getUserId());
+                    userInfo.put("username", entry.getUsername());
+                    userInfo.put("email", entry.getEmail());
+                    userInfo.put("phone", entry.getPhone() != null ? entry.getPhone() : "");
+                    userInfo.put("role", entry.getRole());
+
+                    switch (entry.getRole()) {
+                        case "VOLUNTEER" -> {
+                            userInfo.put("volunteerSubRole", entry.getVolunteerSubRole());
+                            volunteerUsers.add(userInfo);
+                        }
+                        case "CLIENT" -> clientUsers.add(userInfo);
+                        case "ADMIN" -> adminUsers.add(userInfo);
+                        default -> {
                         }
                     }
-                }
+                });
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("status", "success");
@@ -211,6 +228,194 @@ public class AdminController {
         }, readOnlyExecutor);
     }
 
+    @Operation(summary = "Page through the user directory (Admin only)",
+            description = "Returns users ordered by ID, with volunteer sub-roles, streamed as JSON. " +
+                    "Pass the returned nextCursor as 'after' to fetch the next page.")
+    @GetMapping("/users/directory")
+    public ResponseEntity<StreamingResponseBody> getUserDirectory(
+            @Schema(example = "admin") @RequestHeader("Admin-Username") String adminUsername,
+            @Schema(example = "true") @RequestHeader("Authentication-Status") String authStatus,
+            @Parameter(description = "Only return users with this role (CLIENT, VOLUNTEER or ADMIN)")
+            @RequestParam(value = "role", required = false) String role,
+            @Parameter(description = "Cursor: return users with an ID greater than this")
+            @RequestParam(value = "after", defaultValue = "0") int after,
+            @Parameter(description = "Page size, at most " + MAX_DIRECTORY_PAGE_SIZE)
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        // Checks run here; the body is written later on the MVC async executor
+        try {
+            if (!"true".equals(authStatus)) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", "Not authenticated");
+                errorResponse.put("authenticated", false);
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).contentType(MediaType.APPLICATION_JSON).body(jsonBody(errorResponse));
+            }
+
+            User admin = userService.findByUsername(adminUsername);
+            if (admin == null || !"ADMIN".equals(admin.getRole())) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", "Unauthorized access");
+                errorResponse.put("authenticated", true);
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).contentType(MediaType.APPLICATION_JSON).body(jsonBody(errorResponse));
+            }
+
+            String roleFilter = role != null && !role.isBlank() ? role.trim().toUpperCase() : null;
+            if (roleFilter != null && !DIRECTORY_ROLES.contains(roleFilter)) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", "Invalid role: " + role);
+                errorResponse.put("authenticated", true);
+                return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(jsonBody(errorResponse));
+            }
+            int pageSize = Math.max(1, Math.min(limit, MAX_DIRECTORY_PAGE_SIZE));
+            int cursor = Math.max(0, after);
+
+            StreamingResponseBody body = outputStream -> {
+                try (JsonGenerator json = objectMapper.getFactory().createGenerator(outputStream)) {
+                    json.writeStartObject();
+                    json.writeStringField("status", "success");
+                    json.writeBooleanField("authenticated", true);
+                    json.writeArrayFieldStart("users");
+
+                    // Fetch one extra row to learn whether another page exists
+                    int[] written = {0};
+                    Integer[] lastUserId = {null};
+                    boolean[] hasMore = {false};
+                    userService.forEachDirectoryEntry(roleFilter, cursor, pageSize + 1, entry -> {
+                        if (written[0] == pageSize) {
+                            hasMore[0] = true;
+                            return;
+                        }
+                        try {
+                            json.writeStartObject();
+                            json.writeNumberField("userId", entry.getUserId());
+                            json.writeStringField("username", entry.getUsername());
+                            json.writeStringField("email", entry.getEmail());
+                            json.writeStringField("phone", entry.getPhone() != null ? entry.getPhone() : "");
+                            json.writeStringField("role", entry.getRole());
+                            if (entry.getVolunteerSubRole() != null) {
+                                json.writeStringField("volunteerSubRole", entry.getVolunteerSubRole());
+                            }
+                            json.writeEndObject();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        written[0]++;
+                        lastUserId[0] = entry.getUserId();
+                    });
+
+                    json.writeEndArray();
+                    if (hasMore[0]) {
+                        json.writeNumberField("nextCursor", lastUserId[0]);
+                    } else {
+                        json.writeNullField("nextCursor");
+                    }
+                    json.writeEndObject();
+                }
+            };
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("status", "error");
+            errorResponse.put("message", e.getMessage());
+            errorResponse.put("authenticated", true);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON).body(jsonBody(errorResponse));
+        }
+    }
+
+    private StreamingResponseBody jsonBody(Map<String, Object> body) {
+        return outputStream -> objectMapper.writeValue(outputStream, body);
+    }
+
+    @Operation(summary = "Email outbox metrics (Admin only)",
+            description = "Sent, failed and dead-lettered counts, send and queue latency, and the current backlog")
+    @GetMapping("/email/outbox")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getEmailOutboxMetrics(
+            @Schema(example = "admin") @RequestHeader("Admin-Username") String adminUsername,
+            @Schema(example = "true") @RequestHeader("Authentication-Status") String authStatus) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (!"true".equals(authStatus)) {
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("status", "error");
+                    errorResponse.put("message", "Not authenticated");
+                    errorResponse.put("authenticated", false);
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+                }
+
+                User admin = userService.findByUsername(adminUsername);
+                if (admin == null || !"ADMIN".equals(admin.getRole())) {
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("status", "error");
+                    errorResponse.put("message", "Unauthorized access");
+                    errorResponse.put("authenticated", true);
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+                }
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("status", "success");
+                response.put("authenticated", true);
+                response.put("data", emailOutboxDispatcher.getMetrics());
+                return ResponseEntity.ok(response);
+
+            } catch (Exception e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", e.getMessage());
+                errorResponse.put("authenticated", true);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        }, readOnlyExecutor);
+    }
+
+    @Operation(summary = "Encrypted session store metrics (Admin only)",
+            description = "Live sessions, the size cap, how many sessions were created, expired and evicted, and the ECDH key pair pool")
+    @GetMapping("/security/sessions")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getSessionStoreMetrics(
+            @Schema(example = "admin") @RequestHeader("Admin-Username") String adminUsername,
+            @Schema(example = "true") @RequestHeader("Authentication-Status") String authStatus) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (!"true".equals(authStatus)) {
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("status", "error");
+                    errorResponse.put("message", "Not authenticated");
+                    errorResponse.put("authenticated", false);
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+                }
+
+                User admin = userService.findByUsername(adminUsername);
+                if (admin == null || !"ADMIN".equals(admin.getRole())) {
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("status", "error");
+                    errorResponse.put("message", "Unauthorized access");
+                    errorResponse.put("authenticated", true);
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+                }
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("status", "success");
+                response.put("authenticated", true);
+                Map<String, Object> data = new LinkedHashMap<>(sessionStore.getMetrics());
+                data.put("keyPairPool", ecdhService.getPoolMetrics());
+                response.put("data", data);
+                return ResponseEntity.ok(response);
+
+            } catch (Exception e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", e.getMessage());
+                errorResponse.put("authenticated", true);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            }
+        }, readOnlyExecutor);
+    }
+
     @Operation(summary = "Delete user (Admin only)")
     @DeleteMapping("/user/delete")
     public CompletableFuture<ResponseEntity<Map<String, Object>>> deleteUser(
@@ -3,10 +3,9 @@ package com.backend.streetmed_backend.controller.Auth;
 import com.backend.streetmed_backend.entity.user_entity.User;
 import com.backend.streetmed_backend.entity.user_entity.UserMetadata;
 import com.backend.streetmed_backend.entity.user_entity.VolunteerSubRole;
-import com.backend.streetmed_backend.security.SecurityManager;
+import com.backend.streetmed_backend.security.SessionEncrypted;
 import com.backend.streetmed_backend.service.UserService;
 import com.backend.streetmed_backend.service.VolunteerSubRoleService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
@@ -25,13 +24,12 @@ import java.util.concurrent.Executor;
 
 @Tag(name = "Authentication", description = "APIs for user authentication and profile management")
 @RestController
+@SessionEncrypted
 @RequestMapping("/api/auth")
 public class AuthController {
     private final UserService userService;
     private final Executor authExecutor;
     private final Executor readOnlyExecutor;
-    private final ObjectMapper objectMapper;
-    private final SecurityManager securityManager;
     private final VolunteerSubRoleService volunteerSubRoleService;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
@@ -41,77 +39,20 @@ public class AuthController {
             UserService userService,
             VolunteerSubRoleService volunteerSubRoleService,
             @Qualifier("authExecutor") Executor authExecutor,
-            @Qualifier("readOnlyExecutor") Executor readOnlyExecutor,
-            SecurityManager securityManager,
-            ObjectMapper objectMapper) {
+            @Qualifier("readOnlyExecutor") Executor readOnlyExecutor) {
         this.userService = userService;
         this.volunteerSubRoleService = volunteerSubRoleService;
         this.authExecutor = authExecutor;
         this.readOnlyExecutor = readOnlyExecutor;
-        this.securityManager = securityManager;
-        this.objectMapper = objectMapper;
-        logger.info("AuthController initialized with SecurityManager");
-    }
-
-    /**
-     * Parses the request body. If a session ID is provided, it attempts to decrypt the body first.
-     *
-     * @param sessionId the session ID (can be null)
-     * @param body the request body
-     * @param logPrefix a string to identify the request type in logs
-     * @return a map representing the parsed JSON data
-     * @throws Exception if parsing (or decryption and then parsing) fails
-     */
-    private Map<String, String> parseRequestBody(String sessionId, String body, String logPrefix) throws Exception {
-        if (sessionId != null && !sessionId.isEmpty()) {
-            try {
-                logger.info("Received encrypted {} request for session: {}", logPrefix, sessionId);
-                String decryptedBody = securityManager.decrypt(sessionId, body);
-                Map<String, String> data = objectMapper.readValue(decryptedBody, Map.class);
-                logger.info("Decrypted {} request", logPrefix);
-                return data;
-            } catch (IllegalStateException e) {
-                logger.warn("Session key not found for {}: {}, trying to parse as regular JSON", logPrefix, e.getMessage());
-                try {
-                    return objectMapper.readValue(body, Map.class);
-                } catch (Exception jsonEx) {
-                    throw new RuntimeException("Failed to parse request as JSON after decryption failed for " + logPrefix, jsonEx);
-                }
-            }
-        } else {
-            return objectMapper.readValue(body, Map.class);
-        }
-    }
-
-    /**
-     * Builds a ResponseEntity. If a session ID and key are provided, the response body will be encrypted.
-     *
-     * @param sessionId the session ID (can be null)
-     * @param response the response object to be serialized as JSON
-     * @param status the HTTP status to be used for the response
-     * @return a ResponseEntity containing either the encrypted or plain response body
-     */
-    private ResponseEntity<?> buildResponse(String sessionId, Object response, HttpStatus status) {
-        if (sessionId != null && !sessionId.isEmpty() && securityManager.getSessionKey(sessionId) != null) {
-            try {
-                String encryptedResponse = securityManager.encrypt(sessionId, objectMapper.writeValueAsString(response));
-                return ResponseEntity.status(status).body(encryptedResponse);
-            } catch (Exception e) {
-                logger.error("Error encrypting response: {}", e.getMessage());
-            }
-        }
-        return ResponseEntity.status(status).body(response);
+        logger.info("AuthController initialized");
     }
 
     @Operation(summary = "Register a new user")
     @PostMapping("/register")
     public CompletableFuture<ResponseEntity<?>> register(
-            @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
-            @RequestBody String body) {
+            @RequestBody Map<String, String> userData) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                Map<String, String> userData = parseRequestBody(sessionId, body, "registration");
-
                 if (userData.get("username") == null ||
                         userData.get("password") == null) {
                     throw new RuntimeException("Missing required fields");
@@ -146,14 +87,14 @@ public class AuthController {
                 response.put("message", "User registered successfully");
                 response.put("userId", savedUser.getUserId());
 
-                return buildResponse(sessionId, response, HttpStatus.OK);
+                return ResponseEntity.status(HttpStatus.OK).body(response);
 
             } catch (Exception e) {
                 logger.error("Error processing registration: {}", e.getMessage(), e);
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
                 errorResponse.put("message", e.getMessage());
-                return buildResponse(sessionId, errorResponse, HttpStatus.BAD_REQUEST);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
             }
         }, authExecutor);
     }
@@ -161,12 +102,9 @@ public class AuthController {
     @Operation(summary = "User login")
     @PostMapping("/login")
     public CompletableFuture<ResponseEntity<?>> login(
-            @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
-            @RequestBody String body) {
+            @RequestBody Map<String, String> credentials) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                Map<String, String> credentials = parseRequestBody(sessionId, body, "login");
-
                 String usernameOrEmail = credentials.get("username");
                 String password = credentials.get("password");
 
@@ -204,20 +142,20 @@ public class AuthController {
                         response.put("volunteerSubRole", subRoleStr);
                     }
 
-                    return buildResponse(sessionId, response, HttpStatus.OK);
+                    return ResponseEntity.status(HttpStatus.OK).body(response);
                 } else {
                     Map<String, Object> errorResponse = new HashMap<>();
                     errorResponse.put("status", "error");
                     errorResponse.put("message", "Invalid credentials");
                     errorResponse.put("authenticated", false);
-                    return buildResponse(sessionId, errorResponse, HttpStatus.UNAUTHORIZED);
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
                 }
             } catch (Exception e) {
                 logger.error("Error processing login: {}", e.getMessage(), e);
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
                 errorResponse.put("message", e.getMessage());
-                return buildResponse(sessionId, errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
             }
         }, readOnlyExecutor);
     }
@@ -226,12 +164,9 @@ public class AuthController {
     @Operation(summary = "Update username")
     @PutMapping("/update/username")
     public CompletableFuture<ResponseEntity<?>> updateUsername(
-            @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
-            @RequestBody String body) {
+            @RequestBody Map<String, String> updateData) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                Map<String, String> updateData = parseRequestBody(sessionId, body, "username update");
-
                 String userId = updateData.get("userId");
                 String newUsername = updateData.get("newUsername");
                 String authStatus = updateData.get("authenticated");
@@ -248,7 +183,7 @@ public class AuthController {
                     Map<String, Object> errorResponse = new HashMap<>();
                     errorResponse.put("status", "error");
                     errorResponse.put("message", "Username already taken");
-                    return buildResponse(sessionId, errorResponse, HttpStatus.CONFLICT);
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
                 }
 
                 User updatedUser = userService.updateUsername(Integer.parseInt(userId), newUsername);
@@ -258,14 +193,14 @@ public class AuthController {
                 response.put("message", "Username updated successfully");
                 response.put("username", updatedUser.getUsername());
 
-                return buildResponse(sessionId, response, HttpStatus.OK);
+                return ResponseEntity.status(HttpStatus.OK).body(response);
 
             } catch (Exception e) {
                 logger.error("Error processing username update: {}", e.getMessage(), e);
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
                 errorResponse.put("message", e.getMessage());
-                return buildResponse(sessionId, errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
             }
         }, authExecutor);
     }
@@ -273,12 +208,9 @@ public class AuthController {
     @Operation(summary = "Update phone number")
     @PutMapping("/update/phone")
     public CompletableFuture<ResponseEntity<?>> updatePhone(
-            @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
-            @RequestBody String body) {
+            @RequestBody Map<String, String> updateData) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                Map<String, String> updateData = parseRequestBody(sessionId, body, "phone update");
-
                 String userId = updateData.get("userId");
                 String currentPassword = updateData.get("currentPassword");
                 String newPhone = updateData.get("newPhone");
@@ -301,7 +233,7 @@ public class AuthController {
                     Map<String, Object> errorResponse = new HashMap<>();
                     errorResponse.put("status", "error");
                     errorResponse.put("message", "Current password is incorrect");
-                    return buildResponse(sessionId, errorResponse, HttpStatus.UNAUTHORIZED);
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
                 }
 
                 User updatedUser = userService.updatePhoneWithVerification(
@@ -315,14 +247,14 @@ public class AuthController {
                 response.put("message", "Phone number updated successfully");
                 response.put("phone", updatedUser.getPhone());
 
-                return buildResponse(sessionId, response, HttpStatus.OK);
+                return ResponseEntity.status(HttpStatus.OK).body(response);
 
             } catch (Exception e) {
                 logger.error("Error processing phone update: {}", e.getMessage(), e);
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
                 errorResponse.put("message", e.getMessage());
-                return buildResponse(sessionId, errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
             }
         }, authExecutor);
     }
@@ -330,12 +262,9 @@ public class AuthController {
     @Operation(summary = "Update password")
     @PutMapping("/update/password")
     public CompletableFuture<ResponseEntity<?>> updatePassword(
-            @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
-            @RequestBody String body) {
+            @RequestBody Map<String, String> updateData) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                Map<String, String> updateData = parseRequestBody(sessionId, body, "password update");
-
                 String userId = updateData.get("userId");
                 String currentPassword = updateData.get("currentPassword");
                 String newPassword = updateData.get("newPassword");
@@ -358,7 +287,7 @@ public class AuthController {
                     Map<String, Object> errorResponse = new HashMap<>();
                     errorResponse.put("status", "error");
                     errorResponse.put("message", "Current password is incorrect");
-                    return buildResponse(sessionId, errorResponse, HttpStatus.UNAUTHORIZED);
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
                 }
 
                 userService.updatePasswordWithVerification(Integer.parseInt(userId), currentPassword, newPassword);
@@ -367,14 +296,14 @@ public class AuthController {
                 response.put("status", "success");
                 response.put("message", "Password updated successfully");
 
-                return buildResponse(sessionId, response, HttpStatus.OK);
+                return ResponseEntity.status(HttpStatus.OK).body(response);
 
             } catch (Exception e) {
                 logger.error("Error processing password update: {}", e.getMessage(), e);
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
                 errorResponse.put("message", e.getMessage());
-                return buildResponse(sessionId, errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
             }
         }, authExecutor);
     }
@@ -382,12 +311,9 @@ public class AuthController {
     @Operation(summary = "Update email")
     @PutMapping("/update/email")
     public CompletableFuture<ResponseEntity<?>> updateEmail(
-            @RequestHeader(value = "X-Session-ID", required = false) String sessionId,
-            @RequestBody String body) {
+            @RequestBody Map<String, String> updateData) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                Map<String, String> updateData = parseRequestBody(sessionId, body, "email update");
-
                 String userId = updateData.get("userId");
                 String currentPassword = updateData.get("currentPassword");
                 String newEmail = updateData.get("newEmail");
@@ -410,14 +336,14 @@ public class AuthController {
                     Map<String, Object> errorResponse = new HashMap<>();
                     errorResponse.put("status", "error");
                     errorResponse.put("message", "Current password is incorrect");
-                    return buildResponse(sessionId, errorResponse, HttpStatus.UNAUTHORIZED);
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
                 }
 
                 if (userService.findByEmail(newEmail) != null) {
                     Map<String, Object> errorResponse = new HashMap<>();
                     errorResponse.put("status", "error");
                     errorResponse.put("message", "Email already in use");
-                    return buildResponse(sessionId, errorResponse, HttpStatus.CONFLICT);
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
                 }
 
                 User updatedUser = userService.updateEmailWithVerification(Integer.parseInt(userId), currentPassword, newEmail);
@@ -427,14 +353,14 @@ public class AuthController {
                 response.put("message", "Email updated successfully");
                 response.put("email", updatedUser.getEmail());
 
-                return buildResponse(sessionId, response, HttpStatus.OK);
+                return ResponseEntity.status(HttpStatus.OK).body(response);
 
             } catch (Exception e) {
                 logger.error("Error processing email update: {}", e.getMessage(), e);
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
                 errorResponse.put("message", e.getMessage());
-                return buildResponse(sessionId, errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
             }
         }, authExecutor);
     }
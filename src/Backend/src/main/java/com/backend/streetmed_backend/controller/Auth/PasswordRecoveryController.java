@@ -3,12 +3,15 @@ package com.backend.streetmed_backend.controller.Auth;
 import com.backend.streetmed_backend.entity.user_entity.User;
 import com.backend.streetmed_backend.service.EmailService;
 import com.backend.streetmed_backend.service.UserService;
+import com.backend.streetmed_backend.service.otp.OtpRateLimitException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
@@ -26,6 +29,7 @@ import java.util.concurrent.ConcurrentHashMap;
 @RestController
 @RequestMapping("/api/auth/password")
 public class PasswordRecoveryController {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordRecoveryController.class);
 
     private final UserService userService;
     private final EmailService emailService;
@@ -110,6 +114,13 @@ public class PasswordRecoveryController {
                         "message", "Recovery code sent to your email"
                 ));
 
+            } catch (OtpRateLimitException e) {
+                // Only registered emails get this far, so a distinct answer would reveal the account
+                logger.warn("Password recovery throttled for {}: {}", request.get("email"), e.getMessage());
+                return ResponseEntity.ok(Map.of(
+                        "status", "success",
+                        "message", "Recovery code sent to your email"
+                ));
             } catch (Exception e) {
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
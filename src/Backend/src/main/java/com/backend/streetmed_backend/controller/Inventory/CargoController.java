@@ -1,17 +1,19 @@
 package com.backend.streetmed_backend.controller.Inventory;
 
 import com.backend.streetmed_backend.entity.CargoItem;
+import com.backend.streetmed_backend.service.CargoCatalogCache;
 import com.backend.streetmed_backend.service.CargoItemService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -95,23 +97,58 @@ public class CargoController {
 
     @Operation(summary = "Get all cargo items")
     @GetMapping("/items")
-    public CompletableFuture<ResponseEntity<List<CargoItem>>> getAllItems() {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllItems(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         return CompletableFuture.supplyAsync(() ->
-                ResponseEntity.ok(cargoItemService.getAllItems()), asyncExecutor);
+                cachedJson(cargoItemService.getCatalogSnapshot().getAllItems(), ifNoneMatch), asyncExecutor);
     }
 
     @Operation(summary = "Get low stock items")
     @GetMapping("/items/low-stock")
-    public CompletableFuture<ResponseEntity<List<CargoItem>>> getLowStockItems(
+    public CompletableFuture<ResponseEntity<byte[]>> getLowStockItems(
             @RequestHeader("Admin-Username") String adminUsername,
-            @RequestHeader("Authentication-Status") String authStatus) {
+            @RequestHeader("Authentication-Status") String authStatus,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
 
         return CompletableFuture.supplyAsync(() -> {
             if (!"true".equals(authStatus)) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
-            return ResponseEntity.ok(cargoItemService.getLowStockItems());
+            return cachedJson(cargoItemService.getCatalogSnapshot().getLowStockItems(), ifNoneMatch);
         }, asyncExecutor);
     }
 
+    /**
+     * Serve a pre-serialized catalog view, or 304 if the client already has this version.
+     */
+    private ResponseEntity<byte[]> cachedJson(CargoCatalogCache.CatalogView view, String ifNoneMatch) {
+        if (etagMatches(ifNoneMatch, view.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(view.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(view.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(view.getJson());
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
\ No newline at end of file
@@ -2,13 +2,16 @@ package com.backend.streetmed_backend.controller.Inventory;
 
 import com.backend.streetmed_backend.document.CargoImage;
 import com.backend.streetmed_backend.service.CargoImageService;
+import com.backend.streetmed_backend.service.CargoImageVariantGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/cargo/images")
@@ -51,12 +54,40 @@ public class CargoImageController {
     }
 
     @GetMapping("/{imageId}")
-    public ResponseEntity<?> getImage(@PathVariable String imageId) {
+    public ResponseEntity<?> getImage(
+            @PathVariable String imageId,
+            @RequestParam(value = "size", defaultValue = "original") String size) {
+
+        CargoImageVariantGenerator.Size variant;
+        switch (size) {
+            case "thumb" -> variant = CargoImageVariantGenerator.Size.THUMB;
+            case "medium" -> variant = CargoImageVariantGenerator.Size.MEDIUM;
+            case "original" -> variant = null;
+            default -> {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "error",
+                        "message", "size must be one of: thumb, medium, original"
+                ));
+            }
+        }
+
         try {
             CargoImage image = cargoImageService.getImage(imageId);
+            CargoImageService.ImageContent content = cargoImageService.openImage(image, variant);
+            MediaType contentType = content.getContentType() != null
+                    ? MediaType.parseMediaType(content.getContentType())
+                    : MediaType.APPLICATION_OCTET_STREAM;
+
+            // Images are never modified in place (a new upload gets a new ID), so they can be
+            // cached for good. Spring answers If-None-Match with 304 and Range with 206 itself.
+            CacheControl cacheControl = content.isFinal()
+                    ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                    : CacheControl.noCache();
             return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(image.getContentType()))
-                    .body(image.getData());
+                    .contentType(contentType)
+                    .eTag(content.getContentHash())
+                    .cacheControl(cacheControl)
+                    .body(content.getResource());
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
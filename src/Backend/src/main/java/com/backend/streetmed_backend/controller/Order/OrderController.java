@@ -3,6 +3,7 @@ package com.backend.streetmed_backend.controller.Order;
 import com.backend.streetmed_backend.entity.order_entity.Order;
 import com.backend.streetmed_backend.entity.order_entity.OrderItem;
 import com.backend.streetmed_backend.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,15 +14,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * REST Controller for handling all order-related operations.
@@ -32,11 +37,15 @@ import java.util.concurrent.Executor;
 public class OrderController {
     private final OrderService orderService;
     private final Executor asyncExecutor;
+    private final ObjectMapper objectMapper;
+    private static final int NDJSON_PAGE_SIZE = 200;
 
     @Autowired
     public OrderController(OrderService orderService,
+                           ObjectMapper objectMapper,
                            @Qualifier("authExecutor") Executor asyncExecutor) {
         this.orderService = orderService;
+        this.objectMapper = objectMapper;
         this.asyncExecutor = asyncExecutor;
     }
 
@@ -260,7 +269,15 @@ public class OrderController {
     public CompletableFuture<ResponseEntity<Map<String, Object>>> getAllOrders(
             @RequestParam("authenticated") Boolean authenticated,
             @RequestParam("userId") Integer userId,
-            @RequestParam("userRole") String userRole) {
+            @RequestParam("userRole") String userRole,
+            @Parameter(description = "Only orders with this status")
+            @RequestParam(value = "status", required = false) String status,
+            @Parameter(description = "Only orders assigned to this round")
+            @RequestParam(value = "roundId", required = false) Integer roundId,
+            @Parameter(description = "nextCursor from the previous page")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Page size, at most " + OrderService.MAX_ORDER_PAGE_SIZE)
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 if (!Boolean.TRUE.equals(authenticated)) {
@@ -279,13 +296,20 @@ public class OrderController {
                     return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
                 }
 
-                List<Order> orders = orderService.getAllOrders();
+                OrderService.OrderPage page = orderService.getAllOrders(status, roundId, cursor, limit);
                 Map<String, Object> response = new HashMap<>();
                 response.put("status", "success");
-                response.put("orders", orders);
+                response.put("orders", page.getOrders());
+                response.put("nextCursor", page.getNextCursor());
                 response.put("authenticated", true);
 
                 return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", e.getMessage());
+                errorResponse.put("authenticated", true);
+                return ResponseEntity.badRequest().body(errorResponse);
             } catch (Exception e) {
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
@@ -296,6 +320,41 @@ public class OrderController {
         }, asyncExecutor);
     }
 
+    @Operation(summary = "Stream all orders as NDJSON",
+            description = "Writes every matching order, newest first, as one JSON object per line. " +
+                    "Orders are read page by page, so memory use does not grow with the order history. " +
+                    "Only accessible by volunteers.")
+    @GetMapping(value = "/all/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllOrders(
+            @RequestParam("authenticated") Boolean authenticated,
+            @RequestParam("userId") Integer userId,
+            @RequestParam("userRole") String userRole,
+            @Parameter(description = "Only orders with this status")
+            @RequestParam(value = "status", required = false) String status,
+            @Parameter(description = "Only orders assigned to this round")
+            @RequestParam(value = "roundId", required = false) Integer roundId) {
+        if (!Boolean.TRUE.equals(authenticated)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!"VOLUNTEER".equals(userRole)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Order> orders = orderService.streamAllOrders(status, roundId, NDJSON_PAGE_SIZE)) {
+                Iterator<Order> iterator = orders.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @Operation(summary = "Get user orders",
             description = "Retrieves orders for a specific user. Users can only view their own orders, volunteers can view any user's orders.")
     @ApiResponses(value = {
@@ -334,7 +393,13 @@ public class OrderController {
             @Parameter(description = "User role (CLIENT or VOLUNTEER)")
             @RequestParam("userRole") String userRole,
             @Parameter(description = "ID of the requesting user")
-            @RequestParam("userId") Integer requestUserId) {
+            @RequestParam("userId") Integer requestUserId,
+            @Parameter(description = "Only orders with this status")
+            @RequestParam(value = "status", required = false) String status,
+            @Parameter(description = "nextCursor from the previous page")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Page size, at most " + OrderService.MAX_ORDER_PAGE_SIZE)
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 //Boolean authenticated = (Boolean) requestData.get("authenticated");
@@ -356,13 +421,20 @@ public class OrderController {
                     return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
                 }
 
-                List<Order> orders = orderService.getUserOrders(targetUserId, userRole);
+                OrderService.OrderPage page = orderService.getUserOrders(targetUserId, userRole, status, cursor, limit);
                 Map<String, Object> response = new HashMap<>();
                 response.put("status", "success");
-                response.put("orders", orders);
+                response.put("orders", page.getOrders());
+                response.put("nextCursor", page.getNextCursor());
                 response.put("authenticated", true);
 
                 return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("status", "error");
+                errorResponse.put("message", e.getMessage());
+                errorResponse.put("authenticated", true);
+                return ResponseEntity.badRequest().body(errorResponse);
             } catch (Exception e) {
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("status", "error");
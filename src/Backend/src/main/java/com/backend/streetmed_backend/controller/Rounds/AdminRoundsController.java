@@ -58,6 +58,8 @@ public class AdminRoundsController {
                 "startTime": "2024-04-15T18:00:00",
                 "endTime": "2024-04-15T21:00:00",
                 "location": "Market Square",
+                "latitude": 40.4406,
+                "longitude": -79.9959,
                 "maxParticipants": 5
             }
             """) Map<String, Object> requestData) {
@@ -89,6 +91,11 @@ public class AdminRoundsController {
                 round.setEndTime(LocalDateTime.parse(endTimeStr));
 
                 round.setLocation((String) requestData.get("location"));
+                double[] coordinates = parseCoordinates(requestData);
+                if (coordinates != null) {
+                    round.setLatitude(coordinates[0]);
+                    round.setLongitude(coordinates[1]);
+                }
                 round.setMaxParticipants((Integer) requestData.get("maxParticipants"));
 
                 Rounds savedRound = roundsService.createRound(round);
@@ -99,6 +106,11 @@ public class AdminRoundsController {
                 response.put("roundId", savedRound.getRoundId());
 
                 return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put(getStatus(), "error");
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
             } catch (Exception e) {
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put(getStatus(), "error");
@@ -114,6 +126,7 @@ public class AdminRoundsController {
             @ApiResponse(responseCode = "200", description = "Round updated successfully"),
             @ApiResponse(responseCode = "401", description = "Not authenticated"),
             @ApiResponse(responseCode = "403", description = "Unauthorized - Admin access only"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
             @ApiResponse(responseCode = "404", description = "Round not found")
     })
     @PutMapping("/{roundId}")
@@ -128,6 +141,8 @@ public class AdminRoundsController {
                 "startTime": "2024-04-15T19:00:00",
                 "endTime": "2024-04-15T22:00:00",
                 "location": "Updated location",
+                "latitude": 40.4432,
+                "longitude": -79.9428,
                 "maxParticipants": 6,
                 "status": "SCHEDULED"
             }
@@ -163,6 +178,11 @@ public class AdminRoundsController {
                 if (requestData.containsKey("location")) {
                     existingRound.setLocation((String) requestData.get("location"));
                 }
+                double[] coordinates = parseCoordinates(requestData);
+                if (coordinates != null) {
+                    existingRound.setLatitude(coordinates[0]);
+                    existingRound.setLongitude(coordinates[1]);
+                }
                 if (requestData.containsKey("maxParticipants")) {
                     existingRound.setMaxParticipants((Integer) requestData.get("maxParticipants"));
                 }
@@ -178,6 +198,11 @@ public class AdminRoundsController {
                 response.put("roundId", updatedRound.getRoundId());
 
                 return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put(getStatus(), "error");
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
             } catch (Exception e) {
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put(getStatus(), "error");
@@ -461,20 +486,8 @@ public class AdminRoundsController {
                     return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
                 }
 
-                // Confirm the signup manually
-                RoundSignup signup = roundSignupService.findSignupById(signupId);
-
-                if (!"WAITLISTED".equals(signup.getStatus())) {
-                    Map<String, Object> errorResponse = new HashMap<>();
-                    errorResponse.put(getStatus(), "error");
-                    errorResponse.put("message", "Only waitlisted signups can be manually confirmed");
-                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-                }
-
-                // Update status to confirmed
-                signup.setStatus("CONFIRMED");
-                signup.setUpdatedAt(LocalDateTime.now());
-                RoundSignup confirmedSignup = roundSignupService.updateSignup(signup);
+                // Confirm the signup manually; only waitlisted signups qualify
+                RoundSignup confirmedSignup = roundSignupService.confirmSignup(signupId);
 
                 Map<String, Object> response = new HashMap<>();
                 response.put(getStatus(), "success");
@@ -483,6 +496,11 @@ public class AdminRoundsController {
                 response.put(getStatus(), confirmedSignup.getStatus());
 
                 return ResponseEntity.ok(response);
+            } catch (IllegalStateException e) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put(getStatus(), "error");
+                errorResponse.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
             } catch (Exception e) {
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put(getStatus(), "error");
@@ -501,6 +519,41 @@ public class AdminRoundsController {
         return "status";
     }
 
+    /**
+     * Read the optional latitude/longitude pair of a round request.
+     *
+     * @return {latitude, longitude}, or null if neither is given
+     * @throws IllegalArgumentException if only one is given, or either is not a number in range
+     */
+    private static double[] parseCoordinates(Map<String, Object> requestData) {
+        Object latitude = requestData.get("latitude");
+        Object longitude = requestData.get("longitude");
+        if (latitude == null && longitude == null) {
+            return null;
+        }
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("Latitude and longitude must be given together");
+        }
+        return new double[]{
+                parseCoordinate(latitude, "Latitude", 90),
+                parseCoordinate(longitude, "Longitude", 180)
+        };
+    }
+
+    private static double parseCoordinate(Object value, String name, double limit) {
+        double coordinate;
+        try {
+            coordinate = Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+        // NaN fails this check too
+        if (!(coordinate >= -limit && coordinate <= limit)) {
+            throw new IllegalArgumentException(name + " must be between -" + (int) limit + " and " + (int) limit);
+        }
+        return coordinate;
+    }
+
     @Operation(summary = "Remove a volunteer from a round",
             description = "Removes a volunteer from a round. Only accessible by administrators.")
     @ApiResponses(value = {
@@ -598,16 +651,16 @@ public class AdminRoundsController {
                     signupDetails.put("signupTime", signup.getSignupTime());
                     signupDetails.put("lotteryNumber", signup.getLotteryNumber());
 
-                    // Add user details (name, email, etc.)
-                    try {
-                        roundSignupService.addUserDetailsToSignup(signupDetails, signup.getUserId());
-                    } catch (Exception e) {
-                        // Continue even if user details can't be fetched
-                    }
-
                     waitlistedWithDetails.add(signupDetails);
                 }
 
+                // Add user details (name, email, etc.) for all waitlisted users in one query
+                try {
+                    roundSignupService.addUserDetailsToSignups(waitlistedWithDetails);
+                } catch (Exception e) {
+                    // Continue even if user details can't be fetched
+                }
+
                 // Sort by lottery number
                 waitlistedWithDetails.sort((map1, map2) -> {
                     Integer lottery1 = (Integer) map1.get("lotteryNumber");
@@ -3,6 +3,7 @@ package com.backend.streetmed_backend.controller.Rounds;
 import com.backend.streetmed_backend.entity.order_entity.Order;
 import com.backend.streetmed_backend.entity.rounds_entity.Rounds;
 import com.backend.streetmed_backend.entity.rounds_entity.RoundSignup;
+import com.backend.streetmed_backend.repository.Rounds.RoundSignupRepository;
 import com.backend.streetmed_backend.service.OrderService;
 import com.backend.streetmed_backend.service.RoundsService;
 import com.backend.streetmed_backend.service.RoundSignupService;
@@ -69,6 +70,11 @@ public class VolunteerRoundsController {
                 List<Rounds> upcomingRounds = roundsService.getUpcomingRounds();
                 List<Map<String, Object>> roundsWithAvailability = new ArrayList<>();
 
+                // Counts and the user's own signups for every round in a single query
+                List<Integer> roundIds = upcomingRounds.stream().map(Rounds::getRoundId).toList();
+                Map<Integer, RoundSignupRepository.RoundSignupSummary> summaries =
+                        roundSignupService.getSignupSummaries(roundIds, userId);
+
                 for (Rounds round : upcomingRounds) {
                     Map<String, Object> roundInfo = new HashMap<>();
                     roundInfo.put("roundId", round.getRoundId());
@@ -79,8 +85,11 @@ public class VolunteerRoundsController {
                     roundInfo.put("location", round.getLocation());
                     roundInfo.put("status", round.getStatus());
 
+                    RoundSignupRepository.RoundSignupSummary summary = summaries.get(round.getRoundId());
+
                     // Check if round has available slots
-                    long confirmedVolunteers = roundSignupService.countConfirmedVolunteersForRound(round.getRoundId());
+                    long confirmedVolunteers = summary != null && summary.getConfirmedVolunteers() != null
+                            ? summary.getConfirmedVolunteers() : 0L;
                     int availableSlots = round.getMaxParticipants() - (int)confirmedVolunteers;
                     boolean openForSignup = availableSlots > 0;
 
@@ -90,23 +99,13 @@ public class VolunteerRoundsController {
                     roundInfo.put("openForSignup", openForSignup);
 
                     // Check if this user has already signed up
-                    boolean userSignedUp = roundSignupService.isUserSignedUp(round.getRoundId(), userId);
+                    String userSignupRole = summary != null ? summary.getUserRole() : null;
+                    boolean userSignedUp = userSignupRole != null;
                     roundInfo.put("userSignedUp", userSignedUp);
 
                     // Check if user is team lead or clinician for this round
-                    boolean isTeamLead = false;
-                    boolean isClinician = false;
-
-                    if (userSignedUp) {
-                        // Get user's signup for this round
-                        RoundSignup signup = roundSignupService.findByRoundIdAndUserId(round.getRoundId(), userId)
-                                .orElse(null);
-
-                        if (signup != null) {
-                            isTeamLead = "TEAM_LEAD".equals(signup.getRole());
-                            isClinician = "CLINICIAN".equals(signup.getRole());
-                        }
-                    }
+                    boolean isTeamLead = "TEAM_LEAD".equals(userSignupRole);
+                    boolean isClinician = "CLINICIAN".equals(userSignupRole);
 
                     roundInfo.put("isTeamLead", isTeamLead);
                     roundInfo.put("isClinician", isClinician);
@@ -1,7 +1,6 @@
 package com.backend.streetmed_backend.controller.Security;
 
 import com.backend.streetmed_backend.security.ClientAuthenticationService;
-import com.backend.streetmed_backend.security.ECDHService;
 import com.backend.streetmed_backend.security.SecurityManager;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -29,14 +28,12 @@ public class ECDHController {
 
     private static final Logger logger = LoggerFactory.getLogger(ECDHController.class);
 
-    private final ECDHService ecdhService;
     private final SecurityManager securityManager;
     private final ClientAuthenticationService clientAuthService;
 
     @Autowired
-    public ECDHController(ECDHService ecdhService, SecurityManager securityManager,
+    public ECDHController(SecurityManager securityManager,
                           ClientAuthenticationService clientAuthService) {
-        this.ecdhService = ecdhService;
         this.securityManager = securityManager;
         this.clientAuthService = clientAuthService;
         logger.info("ECDHController initialized");
@@ -66,7 +63,8 @@ public class ECDHController {
         logger.info("Generated new session ID: {}", sessionId);
 
         logger.info("Generating server key pair for session: {}", sessionId);
-        String serverPublicKey = ecdhService.generateKeyPair(sessionId);
+        // The session also records which client it was issued to
+        String serverPublicKey = securityManager.initiateHandshake(sessionId, clientId);
         logger.info("Server key pair generated successfully for session: {}", sessionId);
         logger.debug("Server public key (base64): {}", serverPublicKey);
 
@@ -74,9 +72,6 @@ public class ECDHController {
         response.put("sessionId", sessionId);
         response.put("serverPublicKey", serverPublicKey);
 
-        // Store client ID associated with this session
-        clientAuthService.associateClientWithSession(sessionId, clientId);
-
         logger.info("ECDH handshake initiated successfully for session: {}", sessionId);
         return ResponseEntity.ok(response);
     }
@@ -122,7 +117,7 @@ public class ECDHController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
 
-        if (!ecdhService.hasKeyPair(sessionId)) {
+        if (!securityManager.hasPendingHandshake(sessionId)) {
             logger.warn("Invalid or expired session: {}", sessionId);
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Invalid or expired session");
@@ -138,6 +133,12 @@ public class ECDHController {
             response.put("status", "success");
             response.put("message", "Handshake completed successfully");
 
+            // In stateless mode the client uses this ticket as its session ID from now on
+            String sessionTicket = securityManager.issueSessionTicket(sessionId);
+            if (sessionTicket != null) {
+                response.put("sessionTicket", sessionTicket);
+            }
+
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error completing handshake for session {}: {}", sessionId, e.getMessage(), e);
@@ -3,6 +3,7 @@ package com.backend.streetmed_backend.document;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Document(collection = "cargoImages")
 public class CargoImage {
@@ -11,10 +12,37 @@ public class CargoImage {
 
     private String filename;
     private String contentType;
+    // Only set on images stored before the move to GridFS; migrated by a startup job
     private byte[] data;
+    private String gridFsId;
+    private String contentHash;
     private Long size;
     private LocalDateTime uploadDate;
     private String cargoItemId;
+    // Resized copies keyed by size name ("thumb", "medium"); null until variants were generated
+    private Map<String, Variant> variants;
+
+    /**
+     * A resized copy of the image, stored in GridFS next to the original.
+     */
+    public static class Variant {
+        private String gridFsId;
+        private String contentType;
+        private Long size;
+        private String contentHash;
+
+        public String getGridFsId() { return gridFsId; }
+        public void setGridFsId(String gridFsId) { this.gridFsId = gridFsId; }
+
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+
+        public Long getSize() { return size; }
+        public void setSize(Long size) { this.size = size; }
+
+        public String getContentHash() { return contentHash; }
+        public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    }
 
     // Getters and setters
     public String getId() { return id; }
@@ -29,6 +57,12 @@ public class CargoImage {
     public byte[] getData() { return data; }
     public void setData(byte[] data) { this.data = data; }
 
+    public String getGridFsId() { return gridFsId; }
+    public void setGridFsId(String gridFsId) { this.gridFsId = gridFsId; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
     public Long getSize() { return size; }
     public void setSize(Long size) { this.size = size; }
 
@@ -37,4 +71,7 @@ public class CargoImage {
 
     public String getCargoItemId() { return cargoItemId; }
     public void setCargoItemId(String cargoItemId) { this.cargoItemId = cargoItemId; }
+
+    public Map<String, Variant> getVariants() { return variants; }
+    public void setVariants(Map<String, Variant> variants) { this.variants = variants; }
 }
\ No newline at end of file
@@ -6,7 +6,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Unassigned-order queue (round_id IS NULL ORDER BY request_time) and per-round counts
+        @Index(name = "idx_orders_round_request_time", columnList = "round_id, request_time"),
+        // Keyset pages of /api/orders/all, optionally filtered by status or owner
+        @Index(name = "idx_orders_request_time_id", columnList = "request_time, order_id"),
+        @Index(name = "idx_orders_status_request_time", columnList = "status, request_time, order_id"),
+        @Index(name = "idx_orders_user_request_time", columnList = "user_id, request_time, order_id"),
+        // A volunteer's active/completed orders
+        @Index(name = "idx_orders_volunteer_status", columnList = "volunteer_id, status")
+})
 public class Order {
     public enum OrderType {
         CLIENT,
@@ -19,6 +19,10 @@ public class OrderItem {
     @Column(name = "item_name", nullable = false)
     private String itemName;
 
+    // Resolved cargo item; null for orders placed before items were linked by ID
+    @Column(name = "cargo_item_id")
+    private Integer cargoItemId;
+
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
@@ -50,6 +54,14 @@ public class OrderItem {
         this.itemName = itemName;
     }
 
+    public Integer getCargoItemId() {
+        return cargoItemId;
+    }
+
+    public void setCargoItemId(Integer cargoItemId) {
+        this.cargoItemId = cargoItemId;
+    }
+
     public Integer getQuantity() {
         return quantity;
     }
@@ -0,0 +1,99 @@
+package com.backend.streetmed_backend.entity.rounds_entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized signup counts for a round, kept in step with round_signups by
+ * RoundAvailabilityService so availability reads are a primary key lookup.
+ */
+@Entity
+@Table(name = "round_availability")
+public class RoundAvailability {
+    @Id
+    @Column(name = "round_id")
+    private Integer roundId;
+
+    // Confirmed signups with role VOLUNTEER (not team lead or clinician)
+    @Column(name = "confirmed_volunteers", nullable = false)
+    private Integer confirmedVolunteers = 0;
+
+    @Column(name = "waitlist_size", nullable = false)
+    private Integer waitlistSize = 0;
+
+    @Column(name = "team_leads", nullable = false)
+    private Integer teamLeads = 0;
+
+    @Column(name = "clinicians", nullable = false)
+    private Integer clinicians = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public RoundAvailability() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public RoundAvailability(Integer roundId) {
+        this();
+        this.roundId = roundId;
+    }
+
+    // Getters and Setters
+    public Integer getRoundId() {
+        return roundId;
+    }
+
+    public void setRoundId(Integer roundId) {
+        this.roundId = roundId;
+    }
+
+    public Integer getConfirmedVolunteers() {
+        return confirmedVolunteers;
+    }
+
+    public void setConfirmedVolunteers(Integer confirmedVolunteers) {
+        this.confirmedVolunteers = confirmedVolunteers;
+    }
+
+    public Integer getWaitlistSize() {
+        return waitlistSize;
+    }
+
+    public void setWaitlistSize(Integer waitlistSize) {
+        this.waitlistSize = waitlistSize;
+    }
+
+    public Integer getTeamLeads() {
+        return teamLeads;
+    }
+
+    public void setTeamLeads(Integer teamLeads) {
+        this.teamLeads = teamLeads;
+    }
+
+    public Integer getClinicians() {
+        return clinicians;
+    }
+
+    public void setClinicians(Integer clinicians) {
+        this.clinicians = clinicians;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public boolean hasTeamLead() {
+        return teamLeads != null && teamLeads > 0;
+    }
+
+    public boolean hasClinician() {
+        return clinicians != null && clinicians > 0;
+    }
+}
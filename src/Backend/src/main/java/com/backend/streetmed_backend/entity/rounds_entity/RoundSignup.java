@@ -5,7 +5,12 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "round_signups",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"round_id", "user_id"}))
+        uniqueConstraints = @UniqueConstraint(columnNames = {"round_id", "user_id"}),
+        indexes = {
+                // Confirmed volunteer / team lead / clinician lookups per round
+                @Index(name = "idx_round_signups_round_status_role", columnList = "round_id, status, role"),
+                @Index(name = "idx_round_signups_user_status", columnList = "user_id, status")
+        })
 public class RoundSignup {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
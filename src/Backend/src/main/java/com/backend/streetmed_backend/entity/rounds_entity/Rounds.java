@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "rounds")
+@Table(name = "rounds", indexes = {
+        // Upcoming scheduled rounds in start order
+        @Index(name = "idx_rounds_status_start_time", columnList = "status, start_time")
+})
 public class Rounds {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,6 +29,13 @@ public class Rounds {
     @Column(name = "location", nullable = false)
     private String location;
 
+    // Meeting point of the round, used for geo-aware order matching
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @Column(name = "max_participants", nullable = false)
     private Integer maxParticipants;
 
@@ -106,6 +116,26 @@ public class Rounds {
         this.location = location;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
     public Integer getMaxParticipants() {
         return maxParticipants;
     }
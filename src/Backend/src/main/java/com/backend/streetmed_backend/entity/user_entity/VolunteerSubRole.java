@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "volunteer_sub_roles")
+@Table(name = "volunteer_sub_roles", indexes = {
+        @Index(name = "idx_volunteer_sub_roles_user", columnList = "user_id, subrole_id")
+})
 public class VolunteerSubRole {
 
     public enum SubRoleType {
@@ -0,0 +1,64 @@
+package com.backend.streetmed_backend.event;
+
+/**
+ * Published whenever something happens that can change which round an order belongs to.
+ * Consumed by the OrderAssignmentQueue after the publishing transaction commits.
+ */
+public class OrderAssignmentEvent {
+    public enum Type {
+        ORDER_CREATED,      // a new order needs a round
+        SIGNUP_CONFIRMED,   // a round gained volunteers, pending orders may now fit
+        SIGNUP_CANCELLED    // a round lost a volunteer, its orders may need to move
+    }
+
+    private final Type type;
+    private final Integer orderId;
+    private final Integer roundId;
+    private final int volunteerDelta;
+
+    private OrderAssignmentEvent(Type type, Integer orderId, Integer roundId, int volunteerDelta) {
+        this.type = type;
+        this.orderId = orderId;
+        this.roundId = roundId;
+        this.volunteerDelta = volunteerDelta;
+    }
+
+    public static OrderAssignmentEvent orderCreated(Integer orderId) {
+        return new OrderAssignmentEvent(Type.ORDER_CREATED, orderId, null, 0);
+    }
+
+    public static OrderAssignmentEvent signupConfirmed(Integer roundId, int confirmedVolunteers) {
+        return new OrderAssignmentEvent(Type.SIGNUP_CONFIRMED, null, roundId, confirmedVolunteers);
+    }
+
+    public static OrderAssignmentEvent signupCancelled(Integer roundId) {
+        return new OrderAssignmentEvent(Type.SIGNUP_CANCELLED, null, roundId, -1);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Integer getOrderId() {
+        return orderId;
+    }
+
+    public Integer getRoundId() {
+        return roundId;
+    }
+
+    // Change in confirmed regular volunteers for the round
+    public int getVolunteerDelta() {
+        return volunteerDelta;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderAssignmentEvent{" +
+                "type=" + type +
+                ", orderId=" + orderId +
+                ", roundId=" + roundId +
+                ", volunteerDelta=" + volunteerDelta +
+                '}';
+    }
+}
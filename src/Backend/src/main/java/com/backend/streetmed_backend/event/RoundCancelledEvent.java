@@ -0,0 +1,47 @@
+package com.backend.streetmed_backend.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published when a round is cancelled. Carries everything the notification job needs,
+ * so the job does not have to reload the round or its (now cancelled) signups.
+ * Consumed by RoundNotificationService after the publishing transaction commits.
+ */
+public class RoundCancelledEvent {
+    private final Integer roundId;
+    private final String title;
+    private final LocalDateTime startTime;
+    private final String location;
+    private final List<Integer> userIds;
+
+    public RoundCancelledEvent(Integer roundId, String title, LocalDateTime startTime,
+                               String location, List<Integer> userIds) {
+        this.roundId = roundId;
+        this.title = title;
+        this.startTime = startTime;
+        this.location = location;
+        this.userIds = List.copyOf(userIds);
+    }
+
+    public Integer getRoundId() {
+        return roundId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    // Users whose signups were cancelled along with the round
+    public List<Integer> getUserIds() {
+        return userIds;
+    }
+}
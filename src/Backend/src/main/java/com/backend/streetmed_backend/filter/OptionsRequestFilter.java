@@ -38,7 +38,7 @@ public class OptionsRequestFilter implements Filter {
                             "Admin-Username, Authentication-Status, X-Requested-With, Origin, Accept, " +
                             "Access-Control-Request-Method, Access-Control-Request-Headers");
 
-            response.setHeader("Access-Control-Expose-Headers", "X-Session-ID");
+            response.setHeader("Access-Control-Expose-Headers", "X-Session-ID, X-Session-Ticket");
             response.setHeader("Access-Control-Max-Age", "3600");
             response.setHeader("Access-Control-Allow-Credentials", "true");
             response.setStatus(HttpServletResponse.SC_OK);
@@ -69,7 +69,7 @@ public class RequestCorsFilter implements Filter {
                 "Content-Type, Authorization, X-Session-ID, X-Client-ID, X-Timestamp, X-Signature, " +
                         "Admin-Username, Authentication-Status, X-Requested-With, Origin, Accept");
 
-        response.setHeader("Access-Control-Expose-Headers", "X-Session-ID");
+        response.setHeader("Access-Control-Expose-Headers", "X-Session-ID, X-Session-Ticket");
         response.setHeader("Access-Control-Max-Age", "3600");
         response.setHeader("Access-Control-Allow-Credentials", "true");
     }
@@ -0,0 +1,46 @@
+package com.backend.streetmed_backend.filter;
+
+import com.backend.streetmed_backend.security.SessionEncrypted;
+import com.backend.streetmed_backend.security.SessionTicketService;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Hands out a fresh session ticket when a request arrives with one that is close to expiry.
+ * The new ticket goes in the X-Session-Ticket response header; clients swap it in for
+ * their session ID. Requests with plain session IDs are passed through untouched.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2) // After the CORS filters
+public class SessionTicketRefreshFilter implements Filter {
+
+    private final SessionTicketService ticketService;
+
+    @Autowired
+    public SessionTicketRefreshFilter(SessionTicketService ticketService) {
+        this.ticketService = ticketService;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        if (ticketService.isEnabled()) {
+            String sessionId = ((HttpServletRequest) req).getHeader(SessionEncrypted.SESSION_HEADER);
+            if (ticketService.isTicket(sessionId)) {
+                String refreshed = ticketService.refreshIfExpiring(sessionId);
+                if (refreshed != null) {
+                    // Set before the handler runs, while the response is not committed
+                    ((HttpServletResponse) res).setHeader(SessionTicketService.REFRESH_HEADER, refreshed);
+                }
+            }
+        }
+        chain.doFilter(req, res);
+    }
+}
\ No newline at end of file
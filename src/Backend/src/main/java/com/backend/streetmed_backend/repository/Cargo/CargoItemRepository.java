@@ -6,10 +6,24 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface CargoItemRepository extends JpaRepository<CargoItem, Integer> {
+public interface CargoItemRepository extends JpaRepository<CargoItem, Integer>, CargoItemRepositoryCustom {
+    // Current stock of an item, read without loading the entity
+    interface StockLevel {
+        Integer getId();
+        String getName();
+        Integer getQuantity();
+    }
+
+    // Id and name only, for the in-memory catalog index
+    interface CatalogEntry {
+        Integer getId();
+        String getName();
+    }
+
     List<CargoItem> findByCategory(String category);
 
     List<CargoItem> findByIsAvailableTrue();
@@ -22,6 +36,13 @@ public interface CargoItemRepository extends JpaRepository<CargoItem, Integer> {
     @Query("SELECT c FROM CargoItem c WHERE :size IN (SELECT key(s) FROM c.sizeQuantities s)")
     List<CargoItem> findItemsBySize(@Param("size") String size);
 
+    @Query("SELECT c.id AS id, c.name AS name, c.quantity AS quantity FROM CargoItem c " +
+            "WHERE c.id IN :ids AND c.quantity <= c.minQuantity")
+    List<StockLevel> findLowStockLevelsIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT c.id AS id, c.name AS name FROM CargoItem c")
+    List<CatalogEntry> findCatalogEntries();
+
     List<CargoItem> findByNameContainingIgnoreCase(String name);
 
     List<CargoItem> findByCategoryAndIsAvailableTrue(String category);
@@ -0,0 +1,31 @@
+package com.backend.streetmed_backend.repository.Cargo;
+
+import java.util.List;
+import java.util.Map;
+
+public interface CargoItemRepositoryCustom {
+    /**
+     * Atomically take stock for many items in a single JDBC batch. Each row is only
+     * decremented if the item is available and has enough quantity left.
+     *
+     * @param quantitiesById Map of cargo item ID to the quantity to take
+     * @return IDs of the items that could not be reserved (empty if all succeeded)
+     */
+    List<Integer> reserveQuantities(Map<Integer, Integer> quantitiesById);
+
+    /**
+     * Atomically take stock for several sizes of one item in a single JDBC batch.
+     *
+     * @param itemId The ID of the cargo item
+     * @param quantitiesBySize Map of size to the quantity to take
+     * @return Sizes that could not be reserved (empty if all succeeded)
+     */
+    List<String> reserveSizeQuantities(Integer itemId, Map<String, Integer> quantitiesBySize);
+
+    /**
+     * Put stock back for many items in a single JDBC batch.
+     *
+     * @param quantitiesById Map of cargo item ID to the quantity to return
+     */
+    void restoreQuantities(Map<Integer, Integer> quantitiesById);
+}
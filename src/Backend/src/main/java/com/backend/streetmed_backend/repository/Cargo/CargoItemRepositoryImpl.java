@@ -0,0 +1,97 @@
+package com.backend.streetmed_backend.repository.Cargo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC-backed fragment for CargoItemRepository. Spring Data picks this up by the "Impl" suffix.
+ *
+ * Reservations are conditional UPDATEs, so the stock check and the decrement happen in
+ * one statement and concurrent orders can never drive a quantity below zero.
+ */
+public class CargoItemRepositoryImpl implements CargoItemRepositoryCustom {
+    private static final String RESERVE_SQL =
+            "UPDATE cargo_items SET quantity = quantity - ?, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND quantity >= ? AND is_available = true";
+
+    private static final String RESERVE_SIZE_SQL =
+            "UPDATE cargo_item_sizes s JOIN cargo_items c ON c.id = s.cargo_item_id " +
+            "SET s.quantity = s.quantity - ? " +
+            "WHERE s.cargo_item_id = ? AND s.size = ? AND s.quantity >= ? AND c.is_available = true";
+
+    private static final String RESTORE_SQL =
+            "UPDATE cargo_items SET quantity = quantity + ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CargoItemRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Integer> reserveQuantities(Map<Integer, Integer> quantitiesById) {
+        List<Integer> failed = new ArrayList<>();
+        if (quantitiesById.isEmpty()) {
+            return failed;
+        }
+
+        List<Integer> ids = new ArrayList<>(quantitiesById.size());
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesById.size());
+        for (Map.Entry<Integer, Integer> entry : quantitiesById.entrySet()) {
+            ids.add(entry.getKey());
+            batchArgs.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+
+        // rewriteBatchedStatements=true on the datasource turns this into one round-trip
+        // MySQL rewrites UPDATE batches as multi-statements and still reports a count per row;
+        // 0 means the guard in the WHERE clause rejected that item
+        int[] results = jdbcTemplate.batchUpdate(RESERVE_SQL, batchArgs);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == 0) {
+                failed.add(ids.get(i));
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public List<String> reserveSizeQuantities(Integer itemId, Map<String, Integer> quantitiesBySize) {
+        List<String> failed = new ArrayList<>();
+        if (quantitiesBySize.isEmpty()) {
+            return failed;
+        }
+
+        List<String> sizes = new ArrayList<>(quantitiesBySize.size());
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesBySize.size());
+        for (Map.Entry<String, Integer> entry : quantitiesBySize.entrySet()) {
+            sizes.add(entry.getKey());
+            batchArgs.add(new Object[]{entry.getValue(), itemId, entry.getKey(), entry.getValue()});
+        }
+
+        int[] results = jdbcTemplate.batchUpdate(RESERVE_SIZE_SQL, batchArgs);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == 0) {
+                failed.add(sizes.get(i));
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public void restoreQuantities(Map<Integer, Integer> quantitiesById) {
+        if (quantitiesById.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesById.size());
+        for (Map.Entry<Integer, Integer> entry : quantitiesById.entrySet()) {
+            batchArgs.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        jdbcTemplate.batchUpdate(RESTORE_SQL, batchArgs);
+    }
+}
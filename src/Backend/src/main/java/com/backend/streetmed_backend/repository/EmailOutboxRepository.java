@@ -0,0 +1,39 @@
+package com.backend.streetmed_backend.repository;
+
+import com.backend.streetmed_backend.entity.Service_entity.OutboundEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<OutboundEmail, Long>, EmailOutboxRepositoryCustom {
+
+    // Due mail, oldest first. Rows another node is already claiming are skipped, not waited on.
+    @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboundEmail> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Push claimed rows out of reach of other pollers until the lease runs out
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+    int leaseUntil(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Bodies are dropped once sent; only the delivery record is kept
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = 'SENT', e.sentAt = :sentAt, e.attempts = e.attempts + 1, " +
+            "e.lastError = NULL, e.textBody = '', e.htmlBody = NULL WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboundEmail e WHERE (e.status = 'SENT' AND e.sentAt < :cutoff) " +
+            "OR (e.status = 'DEAD' AND e.createdAt < :cutoff)")
+    int purgeFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    long countByStatus(String status);
+}
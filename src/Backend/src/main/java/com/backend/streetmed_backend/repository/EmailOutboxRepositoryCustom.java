@@ -0,0 +1,13 @@
+package com.backend.streetmed_backend.repository;
+
+import java.util.Collection;
+
+public interface EmailOutboxRepositoryCustom {
+
+    /**
+     * Queue the same message for many recipients with one batched INSERT.
+     *
+     * @return Number of rows written
+     */
+    int enqueueAll(Collection<String> recipients, String subject, String textBody, String htmlBody);
+}
@@ -0,0 +1,41 @@
+package com.backend.streetmed_backend.repository;
+
+import com.backend.streetmed_backend.entity.Service_entity.OutboundEmail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC-backed fragment for EmailOutboxRepository. Spring Data picks this up by the "Impl" suffix.
+ */
+public class EmailOutboxRepositoryImpl implements EmailOutboxRepositoryCustom {
+    private static final String INSERT_SQL =
+            "INSERT INTO email_outbox (recipient, subject, text_body, html_body, status, attempts, " +
+            "next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public EmailOutboxRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int enqueueAll(Collection<String> recipients, String subject, String textBody, String htmlBody) {
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(recipients.size());
+        for (String recipient : recipients) {
+            rows.add(new Object[]{recipient, subject, textBody, htmlBody, OutboundEmail.STATUS_PENDING, now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        return rows.size();
+    }
+}
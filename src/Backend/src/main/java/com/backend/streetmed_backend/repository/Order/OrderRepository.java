@@ -1,14 +1,32 @@
 package com.backend.streetmed_backend.repository.Order;
 
 import com.backend.streetmed_backend.entity.order_entity.Order;
-import org.apache.ibatis.annotations.Param;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+public interface OrderRepository extends JpaRepository<Order, Integer>, OrderRepositoryCustom {
+
+    // Lightweight view of an order waiting for a round
+    interface PendingOrder {
+        Integer getOrderId();
+        Double getLatitude();
+        Double getLongitude();
+    }
+
+    // Lightweight view of an order already placed on a round
+    interface RoundOrder {
+        Integer getOrderId();
+        Integer getRoundId();
+        LocalDateTime getRequestTime();
+    }
+
     @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems")
     List<Order> findAllWithItems();
 
@@ -25,6 +43,41 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     List<Order> findByRoundIdIsNullOrderByRequestTimeAsc();
     long countByRoundId(Integer roundId);
 
+    // Only the columns assignment needs, so orders and their items are not hydrated
+    @Query("SELECT o.orderId AS orderId, o.latitude AS latitude, o.longitude AS longitude " +
+            "FROM Order o WHERE o.roundId IS NULL ORDER BY o.requestTime ASC")
+    List<PendingOrder> findPendingOrders();
+
+    // Subset of the given orders that still have no round, oldest first
+    @Query("SELECT o.orderId AS orderId, o.latitude AS latitude, o.longitude AS longitude " +
+            "FROM Order o WHERE o.orderId IN :orderIds AND o.roundId IS NULL ORDER BY o.requestTime ASC")
+    List<PendingOrder> findPendingOrdersIn(@Param("orderIds") Collection<Integer> orderIds);
+
+    // All orders of a set of rounds in one query, for rebalancing
+    @Query("SELECT o.orderId AS orderId, o.roundId AS roundId, o.requestTime AS requestTime " +
+            "FROM Order o WHERE o.roundId IN :roundIds")
+    List<RoundOrder> findRoundOrdersIn(@Param("roundIds") Collection<Integer> roundIds);
+
+    // One keyset page of order IDs, newest first; null filters and a null cursor are ignored
+    @Query("SELECT o.orderId FROM Order o " +
+            "WHERE (:status IS NULL OR o.status = :status) " +
+            "AND (:roundId IS NULL OR o.roundId = :roundId) " +
+            "AND (:userId IS NULL OR o.userId = :userId) " +
+            "AND (:afterTime IS NULL OR o.requestTime < :afterTime " +
+            "     OR (o.requestTime = :afterTime AND o.orderId < :afterId)) " +
+            "ORDER BY o.requestTime DESC, o.orderId DESC")
+    List<Integer> findOrderPageIds(@Param("status") String status,
+                                   @Param("roundId") Integer roundId,
+                                   @Param("userId") Integer userId,
+                                   @Param("afterTime") LocalDateTime afterTime,
+                                   @Param("afterId") Integer afterId,
+                                   Pageable pageable);
+
+    // Orders and their items for one page, in a single join
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.orderId IN :orderIds " +
+            "ORDER BY o.requestTime DESC, o.orderId DESC")
+    List<Order> findWithItemsByOrderIdIn(@Param("orderIds") Collection<Integer> orderIds);
+
     List<Order> findByVolunteerId(Integer volunteerId);
 
     List<Order> findByVolunteerIdAndStatus(Integer volunteerId, String status);
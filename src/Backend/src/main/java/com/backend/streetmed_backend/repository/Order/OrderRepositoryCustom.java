@@ -0,0 +1,27 @@
+package com.backend.streetmed_backend.repository.Order;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface OrderRepositoryCustom {
+    /**
+     * Move orders between rounds in a single JDBC batch. An order is only updated while it
+     * is still on the round it is being moved from, so one that was cancelled or
+     * reassigned in the meantime is left alone.
+     *
+     * @param targetRoundIds Map of order ID to the round ID it should move to
+     * @param sourceRoundIds Map of order ID to the round ID it is expected to be on
+     * @return IDs of the orders that were not updated
+     */
+    Set<Integer> batchMoveRoundIds(Map<Integer, Integer> targetRoundIds, Map<Integer, Integer> sourceRoundIds);
+
+    /**
+     * Assign pending orders to rounds in a single JDBC batch. An order is only updated
+     * while it is still PENDING and has no round, so one that was assigned or
+     * cancelled in the meantime is left alone.
+     *
+     * @param roundIdsByOrderId Map of order ID to the round ID it should be assigned to
+     * @return IDs of the orders that were not updated
+     */
+    Set<Integer> batchAssignRoundIds(Map<Integer, Integer> roundIdsByOrderId);
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.backend.streetmed_backend.repository.Order;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * JDBC-backed fragment for OrderRepository. Spring Data picks this up by the "Impl" suffix.
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+    private static final String MOVE_ROUND_SQL =
+            "UPDATE orders SET round_id = ? WHERE order_id = ? AND round_id = ?";
+    private static final String ASSIGN_ROUND_SQL =
+            "UPDATE orders SET round_id = ? WHERE order_id = ? AND round_id IS NULL AND status = 'PENDING'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Set<Integer> batchMoveRoundIds(Map<Integer, Integer> targetRoundIds, Map<Integer, Integer> sourceRoundIds) {
+        if (targetRoundIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        List<Integer> orderIds = new ArrayList<>(targetRoundIds.keySet());
+        List<Object[]> batchArgs = new ArrayList<>(orderIds.size());
+        for (Integer orderId : orderIds) {
+            batchArgs.add(new Object[]{targetRoundIds.get(orderId), orderId, sourceRoundIds.get(orderId)});
+        }
+        return skippedRows(MOVE_ROUND_SQL, orderIds, batchArgs, targetRoundIds);
+    }
+
+    @Override
+    public Set<Integer> batchAssignRoundIds(Map<Integer, Integer> roundIdsByOrderId) {
+        if (roundIdsByOrderId.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        List<Integer> orderIds = new ArrayList<>(roundIdsByOrderId.keySet());
+        List<Object[]> batchArgs = new ArrayList<>(orderIds.size());
+        for (Integer orderId : orderIds) {
+            batchArgs.add(new Object[]{roundIdsByOrderId.get(orderId), orderId});
+        }
+        return skippedRows(ASSIGN_ROUND_SQL, orderIds, batchArgs, roundIdsByOrderId);
+    }
+
+    /**
+     * Run a guarded round_id update as one batch and work out which rows it did not apply to.
+     *
+     * @param orderIds Order IDs in the same order as batchArgs
+     * @param roundIdsByOrderId The round ID each order should end up on
+     * @return IDs of the orders that were not updated
+     */
+    private Set<Integer> skippedRows(String sql, List<Integer> orderIds, List<Object[]> batchArgs,
+                                     Map<Integer, Integer> roundIdsByOrderId) {
+        // rewriteBatchedStatements=true on the datasource turns this into one round-trip
+        int[] results = jdbcTemplate.batchUpdate(sql, batchArgs);
+
+        Set<Integer> skipped = new HashSet<>();
+        List<Integer> unknown = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(orderIds.get(i));
+            } else if (results[i] == 0) {
+                skipped.add(orderIds.get(i));
+            }
+        }
+
+        // MySQL may report SUCCESS_NO_INFO for rewritten batches; check what actually landed
+        if (!unknown.isEmpty()) {
+            Map<Integer, Integer> landed = new HashMap<>();
+            String placeholders = String.join(",", Collections.nCopies(unknown.size(), "?"));
+            jdbcTemplate.query("SELECT order_id, round_id FROM orders WHERE order_id IN (" + placeholders + ")",
+                    rs -> {
+                        landed.put(rs.getInt("order_id"), (Integer) rs.getObject("round_id"));
+                    },
+                    unknown.toArray());
+            for (Integer orderId : unknown) {
+                if (!Objects.equals(landed.get(orderId), roundIdsByOrderId.get(orderId))) {
+                    skipped.add(orderId);
+                }
+            }
+        }
+        return skipped;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.backend.streetmed_backend.repository.Rounds;
+
+import com.backend.streetmed_backend.entity.rounds_entity.RoundAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RoundAvailabilityRepository extends JpaRepository<RoundAvailability, Integer> {
+
+    // Shift the counters of one round in place; the row lock serializes concurrent signups
+    @Modifying
+    @Query("UPDATE RoundAvailability a SET " +
+            "a.confirmedVolunteers = a.confirmedVolunteers + :confirmed, " +
+            "a.waitlistSize = a.waitlistSize + :waitlisted, " +
+            "a.teamLeads = a.teamLeads + :teamLeads, " +
+            "a.clinicians = a.clinicians + :clinicians, " +
+            "a.updatedAt = :now " +
+            "WHERE a.roundId = :roundId")
+    int applyDelta(@Param("roundId") Integer roundId,
+                   @Param("confirmed") int confirmed,
+                   @Param("waitlisted") int waitlisted,
+                   @Param("teamLeads") int teamLeads,
+                   @Param("clinicians") int clinicians,
+                   @Param("now") LocalDateTime now);
+
+    // Rounds that don't have an availability row yet (created before the read model existed)
+    @Query("SELECT r.roundId FROM Rounds r WHERE NOT EXISTS " +
+            "(SELECT a FROM RoundAvailability a WHERE a.roundId = r.roundId)")
+    List<Integer> findRoundIdsWithoutAvailability();
+}
@@ -2,19 +2,55 @@ package com.backend.streetmed_backend.repository.Rounds;
 
 import com.backend.streetmed_backend.entity.rounds_entity.RoundSignup;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoundSignupRepository extends JpaRepository<RoundSignup, Integer> {
 
+    // Per-round signup summary as seen by one user
+    interface RoundSignupSummary {
+        Integer getRoundId();
+        Long getConfirmedVolunteers();
+        // Role of the requesting user in this round, or null if not signed up
+        String getUserRole();
+    }
+
+    // Signup counts of one round, used to (re)build round_availability
+    interface SignupCounts {
+        Integer getRoundId();
+        Long getConfirmedVolunteers();
+        Long getWaitlisted();
+        Long getTeamLeads();
+        Long getClinicians();
+    }
+
     // Find all signups for a specific round
     List<RoundSignup> findByRoundId(Integer roundId);
 
+    // Users still signed up (in any status) for a round
+    @Query("SELECT rs.userId FROM RoundSignup rs WHERE rs.roundId = :roundId AND rs.status <> 'CANCELED'")
+    List<Integer> findActiveUserIdsForRound(@Param("roundId") Integer roundId);
+
+    // Cancel every remaining signup of a round in one statement
+    @Modifying
+    @Query("UPDATE RoundSignup rs SET rs.status = 'CANCELED', rs.updatedAt = :now " +
+            "WHERE rs.roundId = :roundId AND rs.status <> 'CANCELED'")
+    int cancelAllForRound(@Param("roundId") Integer roundId, @Param("now") LocalDateTime now);
+
+    // Conditional so that only one of several concurrent confirmations applies
+    @Modifying
+    @Query("UPDATE RoundSignup rs SET rs.status = 'CONFIRMED', rs.updatedAt = :now " +
+            "WHERE rs.signupId = :signupId AND rs.status = 'WAITLISTED'")
+    int confirmWaitlisted(@Param("signupId") Integer signupId, @Param("now") LocalDateTime now);
+
     // Find all signups for a specific user
     List<RoundSignup> findByUserId(Integer userId);
 
@@ -37,6 +73,24 @@ public interface RoundSignupRepository extends JpaRepository<RoundSignup, Intege
     @Query("SELECT COUNT(rs) FROM RoundSignup rs WHERE rs.roundId = :roundId AND rs.status = 'CONFIRMED' AND rs.role = 'VOLUNTEER'")
     long countConfirmedVolunteersForRound(@Param("roundId") Integer roundId);
 
+    // Confirmed volunteer counts and the given user's role for many rounds in one query.
+    // Rounds without any signups are not returned.
+    @Query("SELECT rs.roundId AS roundId, " +
+            "SUM(CASE WHEN rs.status = 'CONFIRMED' AND rs.role = 'VOLUNTEER' THEN 1 ELSE 0 END) AS confirmedVolunteers, " +
+            "MAX(CASE WHEN rs.userId = :userId THEN rs.role ELSE NULL END) AS userRole " +
+            "FROM RoundSignup rs WHERE rs.roundId IN :roundIds GROUP BY rs.roundId")
+    List<RoundSignupSummary> findSignupSummaries(@Param("roundIds") Collection<Integer> roundIds,
+                                                 @Param("userId") Integer userId);
+
+    // Per-round signup counts for round_availability. Rounds without any signups are not returned.
+    @Query("SELECT rs.roundId AS roundId, " +
+            "SUM(CASE WHEN rs.status = 'CONFIRMED' AND rs.role = 'VOLUNTEER' THEN 1 ELSE 0 END) AS confirmedVolunteers, " +
+            "SUM(CASE WHEN rs.status = 'WAITLISTED' THEN 1 ELSE 0 END) AS waitlisted, " +
+            "SUM(CASE WHEN rs.status = 'CONFIRMED' AND rs.role = 'TEAM_LEAD' THEN 1 ELSE 0 END) AS teamLeads, " +
+            "SUM(CASE WHEN rs.status = 'CONFIRMED' AND rs.role = 'CLINICIAN' THEN 1 ELSE 0 END) AS clinicians " +
+            "FROM RoundSignup rs WHERE rs.roundId IN :roundIds GROUP BY rs.roundId")
+    List<SignupCounts> findSignupCounts(@Param("roundIds") Collection<Integer> roundIds);
+
     // Find team lead for a round (if exists)
     @Query("SELECT rs FROM RoundSignup rs WHERE rs.roundId = :roundId AND rs.role = 'TEAM_LEAD' AND rs.status = 'CONFIRMED'")
     Optional<RoundSignup> findTeamLeadForRound(@Param("roundId") Integer roundId);
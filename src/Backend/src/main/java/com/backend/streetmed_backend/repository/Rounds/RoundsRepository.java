@@ -12,6 +12,13 @@ import java.util.List;
 @Repository
 public interface RoundsRepository extends JpaRepository<Rounds, Integer> {
 
+    // Per-round capacity row used by the batch order assignment
+    interface RoundCapacity {
+        Integer getRoundId();
+        long getConfirmedVolunteers();
+        long getAssignedOrders();
+    }
+
     // Find upcoming rounds (start time is in the future)
     List<Rounds> findByStartTimeAfterAndStatusOrderByStartTimeAsc(LocalDateTime now, String status);
 
@@ -31,8 +38,9 @@ public interface RoundsRepository extends JpaRepository<Rounds, Integer> {
     List<Rounds> findRoundsForNext7Days(LocalDateTime start, LocalDateTime end);
 
     // Find rounds with availability (has slots open)
-    @Query("SELECT r FROM Rounds r WHERE r.startTime > :now AND r.status = 'SCHEDULED' " +
-            "AND (SELECT COUNT(rs) FROM RoundSignup rs WHERE rs.roundId = r.roundId AND rs.status = 'CONFIRMED' AND rs.role = 'VOLUNTEER') < r.maxParticipants " +
+    @Query("SELECT r FROM Rounds r LEFT JOIN RoundAvailability a ON a.roundId = r.roundId " +
+            "WHERE r.startTime > :now AND r.status = 'SCHEDULED' " +
+            "AND COALESCE(a.confirmedVolunteers, 0) < r.maxParticipants " +
             "ORDER BY r.startTime ASC")
     List<Rounds> findAvailableRounds(@Param("now") LocalDateTime now);
 
@@ -65,4 +73,16 @@ public interface RoundsRepository extends JpaRepository<Rounds, Integer> {
             "AND NOT EXISTS (SELECT rs FROM RoundSignup rs WHERE rs.roundId = r.roundId AND rs.role = 'CLINICIAN' AND rs.status = 'CONFIRMED') " +
             "ORDER BY r.startTime ASC")
     List<Rounds> findRoundsNeedingClinician(@Param("now") LocalDateTime now);
+
+    // Capacity of every upcoming round in one query: confirmed volunteers and assigned orders, grouped per round
+    @Query(value = "SELECT r.round_id AS roundId, " +
+            "COALESCE(v.cnt, 0) AS confirmedVolunteers, COALESCE(o.cnt, 0) AS assignedOrders " +
+            "FROM rounds r " +
+            "LEFT JOIN (SELECT round_id, COUNT(*) AS cnt FROM round_signups " +
+            "WHERE status = 'CONFIRMED' AND role = 'VOLUNTEER' GROUP BY round_id) v ON v.round_id = r.round_id " +
+            "LEFT JOIN (SELECT round_id, COUNT(*) AS cnt FROM orders " +
+            "WHERE round_id IS NOT NULL GROUP BY round_id) o ON o.round_id = r.round_id " +
+            "WHERE r.start_time > :now AND r.status = 'SCHEDULED' " +
+            "ORDER BY r.start_time ASC", nativeQuery = true)
+    List<RoundCapacity> findUpcomingRoundCapacities(@Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -3,14 +3,26 @@ package com.backend.streetmed_backend.repository.User;
 
 import com.backend.streetmed_backend.entity.user_entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Integer> {
+public interface UserRepository extends JpaRepository<User, Integer>, UserRepositoryCustom {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // Email addresses of many users in one query, for bulk notifications
+    @Query("SELECT u.email FROM User u WHERE u.userId IN :userIds AND u.email IS NOT NULL AND u.email <> ''")
+    List<String> findEmailsByUserIdIn(@Param("userIds") Collection<Integer> userIds);
+
+    // Users with their metadata in one query, for roster listings
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.metadata WHERE u.userId IN :userIds")
+    List<User> findAllWithMetadataByUserIdIn(@Param("userIds") Collection<Integer> userIds);
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.backend.streetmed_backend.repository.User;
+
+import java.util.function.Consumer;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * One row of the admin user directory.
+     */
+    class UserDirectoryEntry {
+        private final Integer userId;
+        private final String username;
+        private final String email;
+        private final String phone;
+        private final String role;
+        private final String volunteerSubRole;
+
+        public UserDirectoryEntry(Integer userId, String username, String email, String phone,
+                                  String role, String volunteerSubRole) {
+            this.userId = userId;
+            this.username = username;
+            this.email = email;
+            this.phone = phone;
+            this.role = role;
+            this.volunteerSubRole = volunteerSubRole;
+        }
+
+        public Integer getUserId() { return userId; }
+        public String getUsername() { return username; }
+        public String getEmail() { return email; }
+        public String getPhone() { return phone; }
+        public String getRole() { return role; }
+
+        /**
+         * Sub-role for volunteers (REGULAR if none was assigned), null for other roles.
+         */
+        public String getVolunteerSubRole() { return volunteerSubRole; }
+    }
+
+    /**
+     * Walk users ordered by ID, starting after a cursor, together with their volunteer
+     * sub-role, in a single LEFT JOIN query. Rows are handed over as they are read.
+     *
+     * @param role Only users with this role, or null for all roles
+     * @param afterUserId Keyset cursor: only users with a greater ID are returned
+     * @param limit Maximum number of rows
+     * @param action Called once per row, in user ID order
+     */
+    void forEachDirectoryEntry(String role, int afterUserId, int limit, Consumer<UserDirectoryEntry> action);
+}
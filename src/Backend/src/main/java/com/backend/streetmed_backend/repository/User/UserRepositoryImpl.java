@@ -0,0 +1,60 @@
+package com.backend.streetmed_backend.repository.User;
+
+import com.backend.streetmed_backend.entity.user_entity.VolunteerSubRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JDBC-backed fragment for UserRepository. Spring Data picks this up by the "Impl" suffix.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    // A volunteer may hold several sub-role rows; like VolunteerSubRoleService, the first one wins
+    private static final String DIRECTORY_SQL =
+            "SELECT u.user_id, u.username, u.email, u.phone, u.role, vsr.sub_role " +
+            "FROM users u " +
+            "LEFT JOIN volunteer_sub_roles vsr ON vsr.subrole_id = " +
+            "(SELECT MIN(v.subrole_id) FROM volunteer_sub_roles v WHERE v.user_id = u.user_id) " +
+            "WHERE u.user_id > ? ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void forEachDirectoryEntry(String role, int afterUserId, int limit, Consumer<UserDirectoryEntry> action) {
+        StringBuilder sql = new StringBuilder(DIRECTORY_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(afterUserId);
+        if (role != null) {
+            sql.append("AND u.role = ? ");
+            args.add(role);
+        }
+        sql.append("ORDER BY u.user_id LIMIT ?");
+        args.add(limit);
+
+        jdbcTemplate.query(sql.toString(), rs -> {
+            String userRole = rs.getString("role");
+            String subRole = null;
+            if ("VOLUNTEER".equals(userRole)) {
+                subRole = rs.getString("sub_role");
+                if (subRole == null) {
+                    subRole = VolunteerSubRole.SubRoleType.REGULAR.toString();
+                }
+            }
+            action.accept(new UserDirectoryEntry(
+                    rs.getInt("user_id"),
+                    rs.getString("username"),
+                    rs.getString("email"),
+                    rs.getString("phone"),
+                    userRole,
+                    subRole));
+        }, args.toArray());
+    }
+}
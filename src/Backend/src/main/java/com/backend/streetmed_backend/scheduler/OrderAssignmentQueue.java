@@ -0,0 +1,95 @@
+package com.backend.streetmed_backend.scheduler;
+
+import com.backend.streetmed_backend.event.OrderAssignmentEvent;
+import com.backend.streetmed_backend.service.OrderRoundAssignmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * In-process queue of order assignment work.
+ * Events are enqueued once the publishing transaction has committed and drained
+ * in small batches, so only the orders and rounds touched by an event are re-assigned.
+ */
+@Component
+public class OrderAssignmentQueue {
+    private static final Logger logger = LoggerFactory.getLogger(OrderAssignmentQueue.class);
+    private final OrderRoundAssignmentService orderRoundAssignmentService;
+    private final LinkedBlockingQueue<OrderAssignmentEvent> queue = new LinkedBlockingQueue<>();
+
+    @Autowired
+    public OrderAssignmentQueue(OrderRoundAssignmentService orderRoundAssignmentService) {
+        this.orderRoundAssignmentService = orderRoundAssignmentService;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssignmentEvent(OrderAssignmentEvent event) {
+        queue.offer(event);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Drain everything queued since the last run. Events are coalesced per order and
+     * per round so a burst of signups for the same round triggers a single fill.
+     */
+    @Scheduled(fixedDelayString = "${orders.assignment.queue-drain-interval-ms:5000}")
+    public void drain() {
+        List<OrderAssignmentEvent> events = new ArrayList<>();
+        queue.drainTo(events);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> createdOrderIds = new LinkedHashSet<>();
+        Set<Integer> confirmedRoundIds = new LinkedHashSet<>();
+        Set<Integer> cancelledRoundIds = new LinkedHashSet<>();
+
+        for (OrderAssignmentEvent event : events) {
+            switch (event.getType()) {
+                case ORDER_CREATED -> createdOrderIds.add(event.getOrderId());
+                case SIGNUP_CONFIRMED -> confirmedRoundIds.add(event.getRoundId());
+                case SIGNUP_CANCELLED -> cancelledRoundIds.add(event.getRoundId());
+            }
+        }
+
+        logger.info("Processing {} assignment events ({} new orders, {} filled rounds, {} cancelled rounds)",
+                events.size(), createdOrderIds.size(), confirmedRoundIds.size(), cancelledRoundIds.size());
+
+        // Move orders off rounds that lost capacity before filling rounds that gained it
+        for (Integer roundId : cancelledRoundIds) {
+            try {
+                orderRoundAssignmentService.handleVolunteerCancellation(roundId);
+            } catch (Exception e) {
+                logger.error("Error rebalancing round {}: {}", roundId, e.getMessage(), e);
+            }
+        }
+
+        if (!createdOrderIds.isEmpty()) {
+            try {
+                orderRoundAssignmentService.assignOrders(createdOrderIds);
+            } catch (Exception e) {
+                logger.error("Error assigning new orders {}: {}", createdOrderIds, e.getMessage(), e);
+            }
+        }
+
+        if (!confirmedRoundIds.isEmpty()) {
+            try {
+                orderRoundAssignmentService.fillRounds(confirmedRoundIds);
+            } catch (Exception e) {
+                logger.error("Error filling rounds {}: {}", confirmedRoundIds, e.getMessage(), e);
+            }
+        }
+    }
+}
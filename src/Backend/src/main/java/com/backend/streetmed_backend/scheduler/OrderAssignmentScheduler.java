@@ -19,15 +19,16 @@ public class OrderAssignmentScheduler {
         this.orderRoundAssignmentService = orderRoundAssignmentService;
     }
 
-    // Run every hour (3600000 milliseconds)
-    @Scheduled(fixedRate = 3600000)
+    // Low-frequency reconciliation pass (default every 6 hours).
+    // Day-to-day assignment is event driven through OrderAssignmentQueue.
+    @Scheduled(fixedRateString = "${orders.assignment.reconcile-interval-ms:21600000}")
     public void assignOrdersToRounds() {
-        logger.info("Starting scheduled order assignment to rounds");
+        logger.info("Starting order assignment reconciliation");
         try {
             orderRoundAssignmentService.assignOrdersToRounds();
-            logger.info("Completed scheduled order assignment to rounds");
+            logger.info("Completed order assignment reconciliation");
         } catch (Exception e) {
-            logger.error("Error during scheduled order assignment: {}", e.getMessage(), e);
+            logger.error("Error during order assignment reconciliation: {}", e.getMessage(), e);
         }
     }
 }
\ No newline at end of file
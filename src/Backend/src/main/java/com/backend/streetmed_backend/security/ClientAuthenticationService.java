@@ -2,6 +2,7 @@ package com.backend.streetmed_backend.security;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -21,8 +22,8 @@ public class ClientAuthenticationService {
     // Map to store registered clients with their shared secrets
     private final Map<String, String> clientSecrets = new ConcurrentHashMap<>();
 
-    // Map to track which client initiated which session
-    private final Map<String, String> sessionClients = new ConcurrentHashMap<>();
+    // Sessions record which client initiated them
+    private final SessionStore sessionStore;
 
     // Timestamp tolerance in milliseconds (5 minutes)
     private static final long TIMESTAMP_TOLERANCE_MS = 5 * 60 * 1000;
@@ -30,7 +31,10 @@ public class ClientAuthenticationService {
     @Value("${security.client.authentication.key:street-med-client-authentication-key}")
     private String clientAuthenticationKey;
 
-    public ClientAuthenticationService() {
+    @Autowired
+    public ClientAuthenticationService(SessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+
         // Register known clients
         registerClient("street-med-frontend-local", "local-development-secret");
         registerClient("street-med-frontend-prod", "production-client-secret");
@@ -45,19 +49,12 @@ public class ClientAuthenticationService {
         logger.info("Registered client: {}", clientId);
     }
 
-    /**
-     * Associate a session ID with a client ID
-     */
-    public void associateClientWithSession(String sessionId, String clientId) {
-        sessionClients.put(sessionId, clientId);
-        logger.info("Associated session {} with client {}", sessionId, clientId);
-    }
-
     /**
      * Validate if the client ID for a session matches
      */
     public boolean validateSessionClient(String sessionId, String clientId) {
-        String associatedClientId = sessionClients.get(sessionId);
+        SessionStore.Session session = sessionStore.get(sessionId);
+        String associatedClientId = session != null ? session.getClientId() : null;
 
         // If no client is associated yet, allow it (first request)
         if (associatedClientId == null) {
@@ -1,60 +1,145 @@
 package com.backend.streetmed_backend.security;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import javax.crypto.KeyAgreement;
 import java.security.*;
 import java.security.spec.*;
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Service
 public class ECDHService {
     private final Logger logger = LoggerFactory.getLogger(ECDHService.class);
-    private final Map<String, KeyPair> sessionKeyPairs = new HashMap<>();
     private static final String ALGORITHM = "EC";
     private static final String CURVE = "secp256r1"; // NIST P-256 curve
     private static final String KEY_AGREEMENT_ALGORITHM = "ECDH";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Pre-generated key pairs; refilled in the background up to the high watermark
+    // whenever a handshake leaves fewer than the low watermark
+    private final BlockingQueue<KeyPair> pool;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final Executor keyPairExecutor;
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+    private final AtomicLong poolHits = new AtomicLong();
+    private final AtomicLong poolMisses = new AtomicLong();
+
+    @Autowired
+    public ECDHService(@Value("${security.ecdh.pool.low-watermark:16}") int lowWatermark,
+                       @Value("${security.ecdh.pool.high-watermark:64}") int highWatermark,
+                       @Qualifier("keyPairExecutor") Executor keyPairExecutor) {
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = Math.max(highWatermark, lowWatermark);
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, this.highWatermark));
+        this.keyPairExecutor = keyPairExecutor;
+    }
 
     /**
-     * Generates a new key pair for a session and returns the public key.
+     * Hands out a key pair for a new session, taken from the pre-generated pool when possible.
      *
-     * @param sessionId Unique session identifier
-     * @return Base64 encoded public key
+     * @return A fresh P-256 key pair, never handed out before
      */
-    public String generateKeyPair(String sessionId) {
+    public KeyPair generateKeyPair() {
+        KeyPair keyPair = pool.poll();
+        if (pool.size() < lowWatermark) {
+            requestRefill();
+        }
+        if (keyPair != null) {
+            poolHits.incrementAndGet();
+            return keyPair;
+        }
+        // Pool drained by a burst; generate inline rather than make the client wait for the refill
+        poolMisses.incrementAndGet();
+        return newKeyPair();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmPool() {
+        requestRefill();
+    }
+
+    public Map<String, Object> getPoolMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("available", pool.size());
+        metrics.put("lowWatermark", lowWatermark);
+        metrics.put("highWatermark", highWatermark);
+        metrics.put("hits", poolHits.get());
+        metrics.put("misses", poolMisses.get());
+        return metrics;
+    }
+
+    private void requestRefill() {
+        if (refilling.compareAndSet(false, true)) {
+            try {
+                keyPairExecutor.execute(this::refill);
+            } catch (RuntimeException e) {
+                refilling.set(false);
+                logger.warn("Could not schedule key pair pool refill: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Runs on the keyPairExecutor thread only
+    private void refill() {
+        try {
+            int generated = 0;
+            while (pool.size() < highWatermark) {
+                if (!pool.offer(newKeyPair())) {
+                    break;
+                }
+                generated++;
+            }
+            logger.debug("Key pair pool refilled with {} pairs", generated);
+        } catch (Exception e) {
+            logger.error("Key pair pool refill failed: {}", e.getMessage());
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    private KeyPair newKeyPair() {
         try {
             KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(ALGORITHM);
             ECGenParameterSpec ecSpec = new ECGenParameterSpec(CURVE);
-            keyPairGenerator.initialize(ecSpec, new SecureRandom());
-
-            KeyPair keyPair = keyPairGenerator.generateKeyPair();
-            sessionKeyPairs.put(sessionId, keyPair);
-
-            byte[] publicKeyBytes = keyPair.getPublic().getEncoded();
-            return Base64.getEncoder().encodeToString(publicKeyBytes);
+            keyPairGenerator.initialize(ecSpec, RANDOM);
+            return keyPairGenerator.generateKeyPair();
         } catch (Exception e) {
             logger.error("Error generating key pair: {}", e.getMessage());
             throw new RuntimeException("Error generating ECDH key pair", e);
         }
     }
 
+    /**
+     * @param keyPair Server key pair
+     * @return Base64 encoded public key
+     */
+    public String encodePublicKey(KeyPair keyPair) {
+        return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    }
+
     /**
      * Computes the shared secret using the client's public key and server's private key.
      *
-     * @param sessionId Unique session identifier
+     * @param serverKeyPair The key pair issued for the session
      * @param clientPublicKeyBase64 Client's base64 encoded public key
      * @return Base64 encoded shared secret
      */
-    public String computeSharedSecret(String sessionId, String clientPublicKeyBase64) {
+    public String computeSharedSecret(KeyPair serverKeyPair, String clientPublicKeyBase64) {
         try {
-            KeyPair serverKeyPair = sessionKeyPairs.get(sessionId);
-            if (serverKeyPair == null) {
-                throw new IllegalStateException("No key pair found for session: " + sessionId);
-            }
-
             // Decode client's public key
             byte[] clientPublicKeyBytes = Base64.getDecoder().decode(clientPublicKeyBase64);
             KeyFactory keyFactory = KeyFactory.getInstance(ALGORITHM);
@@ -74,23 +159,4 @@ public class ECDHService {
             throw new RuntimeException("Error in ECDH key agreement", e);
         }
     }
-
-    /**
-     * Validates if a session has an existing key pair.
-     *
-     * @param sessionId Unique session identifier
-     * @return true if session key pair exists
-     */
-    public boolean hasKeyPair(String sessionId) {
-        return sessionKeyPairs.containsKey(sessionId);
-    }
-
-    /**
-     * Removes key pair for a session during cleanup.
-     *
-     * @param sessionId Unique session identifier
-     */
-    public void removeKeyPair(String sessionId) {
-        sessionKeyPairs.remove(sessionId);
-    }
 }
\ No newline at end of file
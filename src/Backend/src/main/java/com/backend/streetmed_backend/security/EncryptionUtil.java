@@ -5,10 +5,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
-import java.nio.ByteBuffer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.Base64;
@@ -21,8 +24,20 @@ public class EncryptionUtil {
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 128; // in bits
 
-    // Simple boolean to control logging
-    private static boolean logEnabled = true;
+    // One SecureRandom for all IVs; it is thread-safe and expensive to seed
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Cipher instances are not thread-safe but can be re-initialised, so each thread keeps one
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(ALGORITHM);
+        } catch (Exception e) {
+            throw new IllegalStateException("AES-GCM is not available", e);
+        }
+    });
+
+    // Simple boolean to control logging. Only sizes are logged, and only at debug level.
+    private static volatile boolean logEnabled = false;
 
     /**
      * Derives an AES key from the ECDH shared secret using SHA-256
@@ -43,77 +58,94 @@ public class EncryptionUtil {
      * Encrypts data using AES-GCM with the derived key
      */
     public String encrypt(String data, SecretKey key) {
-        try {
-            if (logEnabled) {
-                logger.info("Encrypting data (plaintext): {}", data);
-            }
-
-            byte[] dataBytes = data.getBytes("UTF-8");
+        byte[] payload = encrypt(data.getBytes(StandardCharsets.UTF_8), key);
+        return Base64.getEncoder().encodeToString(payload);
+    }
 
-            // Generate random IV
-            SecureRandom random = new SecureRandom();
+    /**
+     * Encrypts raw bytes. The result is the IV followed by the ciphertext and tag,
+     * written straight into one array.
+     */
+    public byte[] encrypt(byte[] data, SecretKey key) {
+        try {
             byte[] iv = new byte[GCM_IV_LENGTH];
-            random.nextBytes(iv);
-
-            // Initialize cipher for encryption
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, key, gcmSpec);
-
-            // Encrypt
-            byte[] encryptedData = cipher.doFinal(dataBytes);
+            RANDOM.nextBytes(iv);
 
-            // Concatenate IV and encrypted data
-            ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + encryptedData.length);
-            byteBuffer.put(iv);
-            byteBuffer.put(encryptedData);
+            byte[] payload = new byte[GCM_IV_LENGTH + data.length + GCM_TAG_LENGTH / 8];
+            System.arraycopy(iv, 0, payload, 0, GCM_IV_LENGTH);
 
-            String result = Base64.getEncoder().encodeToString(byteBuffer.array());
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+            int written = cipher.doFinal(data, 0, data.length, payload, GCM_IV_LENGTH);
 
-            if (logEnabled) {
-                logger.info("Encrypted data (ciphertext): {}", result);
+            if (logEnabled && logger.isDebugEnabled()) {
+                logger.debug("Encrypted {} bytes into {} bytes", data.length, GCM_IV_LENGTH + written);
             }
+            return payload;
+        } catch (Exception e) {
+            logger.error("Error encrypting data: {}", e.getMessage());
+            throw new RuntimeException("Error encrypting data", e);
+        }
+    }
 
-            return result;
+    /**
+     * Wraps a stream so everything written to it is encrypted with the key. The IV is
+     * written first and the tag on close, giving the same layout as encrypt(byte[]).
+     * Uses its own Cipher, since the stream may outlive the caller's next encrypt call.
+     */
+    public OutputStream encryptingStream(OutputStream out, SecretKey key) throws IOException {
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        Cipher cipher;
+        try {
+            cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
         } catch (Exception e) {
             logger.error("Error encrypting data: {}", e.getMessage());
             throw new RuntimeException("Error encrypting data", e);
         }
+        out.write(iv);
+        return new CipherOutputStream(out, cipher);
     }
 
     /**
      * Decrypts data using AES-GCM with the derived key
      */
     public String decrypt(String encryptedData, SecretKey key) {
-        try {
-            if (logEnabled) {
-                logger.info("Decrypting data (ciphertext): {}", encryptedData);
-            }
-
-            byte[] encryptedBytes = Base64.getDecoder().decode(encryptedData);
-
-            // Extract IV
-            ByteBuffer byteBuffer = ByteBuffer.wrap(encryptedBytes);
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            byteBuffer.get(iv);
+        return new String(decryptToBytes(encryptedData, key), StandardCharsets.UTF_8);
+    }
 
-            // Extract cipher text
-            byte[] cipherText = new byte[byteBuffer.remaining()];
-            byteBuffer.get(cipherText);
+    /**
+     * Decrypts Base64 data to raw plaintext bytes, for callers that parse bytes directly.
+     */
+    public byte[] decryptToBytes(String encryptedData, SecretKey key) {
+        byte[] payload;
+        try {
+            payload = Base64.getDecoder().decode(encryptedData);
+        } catch (IllegalArgumentException e) {
+            logger.error("Error decrypting data: {}", e.getMessage());
+            throw new RuntimeException("Error decrypting data", e);
+        }
+        return decrypt(payload, key);
+    }
 
-            // Initialize cipher for decryption
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.DECRYPT_MODE, key, gcmSpec);
+    /**
+     * Decrypts raw bytes laid out as IV followed by ciphertext and tag.
+     */
+    public byte[] decrypt(byte[] payload, SecretKey key) {
+        try {
+            if (payload.length < GCM_IV_LENGTH + GCM_TAG_LENGTH / 8) {
+                throw new IllegalArgumentException("Encrypted payload is too short");
+            }
 
-            // Decrypt
-            byte[] decryptedData = cipher.doFinal(cipherText);
-            String result = new String(decryptedData, "UTF-8");
+            // The IV is read in place; no copy of the IV or ciphertext is made
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, payload, 0, GCM_IV_LENGTH));
+            byte[] result = cipher.doFinal(payload, GCM_IV_LENGTH, payload.length - GCM_IV_LENGTH);
 
-            if (logEnabled) {
-                logger.info("Decrypted data (plaintext): {}", result);
+            if (logEnabled && logger.isDebugEnabled()) {
+                logger.debug("Decrypted {} bytes into {} bytes", payload.length, result.length);
             }
-
             return result;
         } catch (Exception e) {
             logger.error("Error decrypting data: {}", e.getMessage());
@@ -3,12 +3,11 @@ package com.backend.streetmed_backend.security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.security.KeyPair;
+import java.util.Base64;
 
 @Component
 public class SecurityManager {
@@ -16,17 +15,16 @@ public class SecurityManager {
 
     private final ECDHService ecdhService;
     private final EncryptionUtil encryptionUtil;
-
-    // Store derived session keys
-    private final Map<String, SecretKey> sessionKeys = new ConcurrentHashMap<>();
-
-    // Map to track when sessions were created (or last used)
-    private final Map<String, Long> sessionTimestamps = new ConcurrentHashMap<>();
+    private final SessionStore sessionStore;
+    private final SessionTicketService ticketService;
 
     @Autowired
-    public SecurityManager(ECDHService ecdhService, EncryptionUtil encryptionUtil) {
+    public SecurityManager(ECDHService ecdhService, EncryptionUtil encryptionUtil,
+                           SessionStore sessionStore, SessionTicketService ticketService) {
         this.ecdhService = ecdhService;
         this.encryptionUtil = encryptionUtil;
+        this.sessionStore = sessionStore;
+        this.ticketService = ticketService;
         logger.info("SecurityManager initialized");
     }
 
@@ -34,20 +32,47 @@ public class SecurityManager {
      * Gets the secret key for the session.
      */
     public SecretKey getSessionKey(String sessionId) {
-        return sessionKeys.get(sessionId);
+        // A session ticket carries its own key; no server-side state is needed
+        if (ticketService.isTicket(sessionId)) {
+            SessionTicketService.Ticket ticket = ticketService.open(sessionId);
+            return ticket != null ? ticket.getSessionKey() : null;
+        }
+        SessionStore.Session session = sessionStore.get(sessionId);
+        return session != null ? session.getSessionKey() : null;
+    }
+
+    /**
+     * Starts a handshake: generates the server key pair and opens the session for this client.
+     *
+     * @return Base64 encoded server public key
+     */
+    public String initiateHandshake(String sessionId, String clientId) {
+        KeyPair keyPair = ecdhService.generateKeyPair();
+        sessionStore.create(sessionId, keyPair, clientId);
+        return ecdhService.encodePublicKey(keyPair);
+    }
+
+    /**
+     * True if the session exists and is still waiting for the client's public key.
+     */
+    public boolean hasPendingHandshake(String sessionId) {
+        SessionStore.Session session = sessionStore.get(sessionId);
+        return session != null && session.getKeyPair() != null;
     }
 
     /**
      * Completes the handshake and derives a session key.
-     * Also records the session creation time.
      */
     public void completeHandshake(String sessionId, String clientPublicKey) {
         try {
-            String sharedSecret = ecdhService.computeSharedSecret(sessionId, clientPublicKey);
+            SessionStore.Session session = sessionStore.get(sessionId);
+            KeyPair keyPair = session != null ? session.getKeyPair() : null;
+            if (keyPair == null) {
+                throw new IllegalStateException("No key pair found for session: " + sessionId);
+            }
+            String sharedSecret = ecdhService.computeSharedSecret(keyPair, clientPublicKey);
             SecretKey key = encryptionUtil.deriveKey(sharedSecret);
-            sessionKeys.put(sessionId, key);
-            // Record the session creation time
-            sessionTimestamps.put(sessionId, System.currentTimeMillis());
+            sessionStore.establish(session, key);
             logger.info("Handshake completed and session key derived for session: {}", sessionId);
         } catch (Exception e) {
             logger.error("Failed to complete handshake: {}", e.getMessage(), e);
@@ -55,56 +80,66 @@ public class SecurityManager {
         }
     }
 
+    /**
+     * Issues a stateless ticket for an established session, if tickets are enabled.
+     * Clients can send the ticket as their session ID to any instance.
+     *
+     * @return The ticket, or null if tickets are disabled or the session is not established
+     */
+    public String issueSessionTicket(String sessionId) {
+        if (!ticketService.isEnabled()) {
+            return null;
+        }
+        SessionStore.Session session = sessionStore.get(sessionId);
+        if (session == null || !session.isEstablished()) {
+            return null;
+        }
+        return ticketService.issue(session.getSessionKey(), session.getClientId());
+    }
+
     /**
      * Encrypts data for a specific session.
      */
     public String encrypt(String sessionId, String data) {
-        SecretKey key = sessionKeys.get(sessionId);
-        if (key == null) {
-            logger.error("No key found for session: {}", sessionId);
-            throw new IllegalStateException("Session key not found: " + sessionId);
-        }
-        return encryptionUtil.encrypt(data, key);
+        return encryptionUtil.encrypt(data, requireKey(sessionId));
+    }
+
+    /**
+     * Encrypts already-serialized bytes for a session and returns the Base64 payload.
+     */
+    public String encrypt(String sessionId, byte[] data) {
+        byte[] payload = encryptionUtil.encrypt(data, requireKey(sessionId));
+        return Base64.getEncoder().encodeToString(payload);
     }
 
     /**
      * Decrypts data for a specific session.
      */
     public String decrypt(String sessionId, String encryptedData) {
-        SecretKey key = sessionKeys.get(sessionId);
+        return encryptionUtil.decrypt(encryptedData, requireKey(sessionId));
+    }
+
+    /**
+     * Decrypts data for a session to raw bytes, skipping the String round-trip.
+     */
+    public byte[] decryptToBytes(String sessionId, String encryptedData) {
+        return encryptionUtil.decryptToBytes(encryptedData, requireKey(sessionId));
+    }
+
+    private SecretKey requireKey(String sessionId) {
+        SecretKey key = getSessionKey(sessionId);
         if (key == null) {
             logger.error("No key found for session: {}", sessionId);
             throw new IllegalStateException("Session key not found: " + sessionId);
         }
-        return encryptionUtil.decrypt(encryptedData, key);
+        return key;
     }
 
     /**
      * Removes all data associated with a session.
      */
     public void removeSession(String sessionId) {
-        sessionKeys.remove(sessionId);
-        sessionTimestamps.remove(sessionId);
-        ecdhService.removeKeyPair(sessionId);
+        sessionStore.remove(sessionId);
         logger.info("Session data removed for session: {}", sessionId);
     }
-
-    /**
-     * Scheduled cleanup task that runs every 5 minutes
-     * to remove sessions that have exceeded the timeout.
-     */
-    @Scheduled(fixedRate = 5 * 60 * 1000) // every 5 minutes
-    public void cleanupExpiredSessions() {
-        long currentTime = System.currentTimeMillis();
-        for (String sessionId : sessionTimestamps.keySet()) {
-            Long timestamp = sessionTimestamps.get(sessionId);
-            // Set session timeout to 30 minutes (in milliseconds)
-            // 30 minutes
-            long SESSION_TIMEOUT_MILLIS = 30 * 60 * 1000;
-            if (timestamp != null && (currentTime - timestamp) > SESSION_TIMEOUT_MILLIS) {
-                logger.info("Session {} expired, cleaning up", sessionId);
-                removeSession(sessionId);
-            }
-        }
-    }
-}
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.backend.streetmed_backend.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller whose JSON request and response bodies are encrypted with the
+ * session key whenever the request carries an X-Session-ID with a live session.
+ * Requests without one are read and answered as plain JSON.
+ *
+ * Handled by SessionEncryptionRequestAdvice and SessionEncryptionResponseAdvice, so
+ * handlers take and return ordinary objects.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SessionEncrypted {
+    String SESSION_HEADER = "X-Session-ID";
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.backend.streetmed_backend.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Base64;
+
+/**
+ * Decrypts request bodies for @SessionEncrypted controllers before the message converter
+ * reads them. The Base64 body is decoded straight from the request stream and the
+ * plaintext is handed to the converter as bytes.
+ */
+@ControllerAdvice(annotations = SessionEncrypted.class)
+public class SessionEncryptionRequestAdvice extends RequestBodyAdviceAdapter {
+
+    private final SecurityManager securityManager;
+    private final EncryptionUtil encryptionUtil;
+
+    @Autowired
+    public SessionEncryptionRequestAdvice(SecurityManager securityManager, EncryptionUtil encryptionUtil) {
+        this.securityManager = securityManager;
+        this.encryptionUtil = encryptionUtil;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
+        String sessionId = inputMessage.getHeaders().getFirst(SessionEncrypted.SESSION_HEADER);
+        SecretKey key = sessionId != null && !sessionId.isEmpty() ? securityManager.getSessionKey(sessionId) : null;
+        if (key == null) {
+            // No live session: the body is plain JSON
+            return inputMessage;
+        }
+
+        byte[] plaintext;
+        try (InputStream in = Base64.getMimeDecoder().wrap(inputMessage.getBody())) {
+            plaintext = encryptionUtil.decrypt(in.readAllBytes(), key);
+        } catch (RuntimeException e) {
+            throw new HttpMessageNotReadableException("Could not decrypt request body", e, inputMessage);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(inputMessage.getHeaders());
+        headers.setContentLength(plaintext.length);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(plaintext);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+}
\ No newline at end of file
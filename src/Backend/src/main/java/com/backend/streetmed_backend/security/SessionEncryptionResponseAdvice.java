@@ -0,0 +1,68 @@
+package com.backend.streetmed_backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Base64;
+
+/**
+ * Encrypts JSON response bodies for @SessionEncrypted controllers. The body is serialized
+ * straight into the cipher, and the ciphertext straight into a Base64 encoder on the
+ * response stream, so the JSON is never held as a String. The status code set by the
+ * handler is kept; the body goes out as text/plain, as the clients expect.
+ */
+@ControllerAdvice(annotations = SessionEncrypted.class)
+public class SessionEncryptionResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SecurityManager securityManager;
+    private final EncryptionUtil encryptionUtil;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public SessionEncryptionResponseAdvice(SecurityManager securityManager, EncryptionUtil encryptionUtil,
+                                           ObjectMapper objectMapper) {
+        this.securityManager = securityManager;
+        this.encryptionUtil = encryptionUtil;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        // Only JSON bodies; images and other binary responses pass through untouched
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        String sessionId = request.getHeaders().getFirst(SessionEncrypted.SESSION_HEADER);
+        SecretKey key = sessionId != null && !sessionId.isEmpty() ? securityManager.getSessionKey(sessionId) : null;
+        if (key == null || body == null) {
+            return body;
+        }
+
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        try (OutputStream out = encryptionUtil.encryptingStream(
+                Base64.getEncoder().wrap(StreamUtils.nonClosing(response.getBody())), key)) {
+            objectMapper.writeValue(out, body);
+        } catch (IOException e) {
+            throw new HttpMessageNotWritableException("Could not write encrypted response", e);
+        }
+        // Already written; a null body tells the converter there is nothing left to write
+        return null;
+    }
+}
\ No newline at end of file
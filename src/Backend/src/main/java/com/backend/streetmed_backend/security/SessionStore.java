@@ -0,0 +1,367 @@
+package com.backend.streetmed_backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Everything tied to one encrypted session, in one place: the server's ECDH key pair
+ * while the handshake is open, the derived AES key once it completes, and the client
+ * the session was issued to.
+ *
+ * Lookups go through a concurrent map. Half-open handshakes get a short TTL and
+ * established sessions a sliding one. Expiry runs on a hashed timer wheel, so each tick
+ * only visits the slots that came due instead of every session. The store is capped at
+ * security.session.max-entries; when it is full the least recently used session is evicted.
+ *
+ * Half-open handshakes sit on their own LRU list with a smaller cap,
+ * security.session.max-handshakes, and are always evicted before any established
+ * session, so a flood of handshakes cannot push logged-in users out.
+ */
+@Component
+public class SessionStore {
+    private static final Logger logger = LoggerFactory.getLogger(SessionStore.class);
+
+    // Recency is only re-recorded when a session was last touched longer ago than this
+    private static final long TOUCH_GRANULARITY_MS = 1000;
+
+    private final int maxEntries;
+    private final int maxHandshakes;
+    private final long handshakeTtlMillis;
+    private final long sessionTtlMillis;
+    private final long tickMillis;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    // Intrusive LRU lists; head.next is the least recently used entry. Guarded by lruLock.
+    private final Object lruLock = new Object();
+    private final Session handshakeHead = new Session(null, 0);
+    private final Session establishedHead = new Session(null, 0);
+    private volatile int handshakeCount;
+
+    // Slot i holds sessions whose deadline falls in a tick congruent to i
+    private final Set<Session>[] wheel;
+    private long lastTick;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public SessionStore(@Value("${security.session.max-entries:10000}") int maxEntries,
+                        @Value("${security.session.max-handshakes:1000}") int maxHandshakes,
+                        @Value("${security.session.handshake-ttl-ms:120000}") long handshakeTtlMillis,
+                        @Value("${security.session.ttl-ms:1800000}") long sessionTtlMillis,
+                        @Value("${security.session.tick-ms:10000}") long tickMillis) {
+        this.maxEntries = maxEntries;
+        this.maxHandshakes = Math.min(maxHandshakes, maxEntries);
+        this.handshakeTtlMillis = handshakeTtlMillis;
+        this.sessionTtlMillis = sessionTtlMillis;
+        this.tickMillis = tickMillis;
+
+        // One revolution covers the longest TTL, so most sessions are visited once
+        int slots = (int) (Math.max(handshakeTtlMillis, sessionTtlMillis) / tickMillis) + 2;
+        this.wheel = new Set[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.lastTick = System.currentTimeMillis() / tickMillis;
+        for (Session head : new Session[]{handshakeHead, establishedHead}) {
+            head.prev = head;
+            head.next = head;
+        }
+    }
+
+    /**
+     * One session's state.
+     */
+    public static class Session {
+        private final String sessionId;
+        private final long createdAt;
+        private volatile KeyPair keyPair;
+        private volatile SecretKey sessionKey;
+        private volatile String clientId;
+        private volatile long expiresAt;
+        private volatile long lastTouched;
+        private volatile int wheelSlot;
+
+        // Guarded by the store's lruLock
+        private Session prev;
+        private Session next;
+        private Session list;
+
+        Session(String sessionId, long createdAt) {
+            this.sessionId = sessionId;
+            this.createdAt = createdAt;
+            this.lastTouched = createdAt;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * The server key pair; null once the handshake has completed.
+         */
+        public KeyPair getKeyPair() {
+            return keyPair;
+        }
+
+        /**
+         * The derived AES key; null until the handshake has completed.
+         */
+        public SecretKey getSessionKey() {
+            return sessionKey;
+        }
+
+        public String getClientId() {
+            return clientId;
+        }
+
+        public boolean isEstablished() {
+            return sessionKey != null;
+        }
+    }
+
+    /**
+     * Open a session for a new handshake. If the handshake cap is reached the oldest
+     * half-open handshake is evicted; if the store is full, handshakes go before
+     * established sessions.
+     */
+    public Session create(String sessionId, KeyPair keyPair, String clientId) {
+        long now = System.currentTimeMillis();
+        Session session = new Session(sessionId, now);
+        session.keyPair = keyPair;
+        session.clientId = clientId;
+        session.expiresAt = now + handshakeTtlMillis;
+
+        while (handshakeCount >= maxHandshakes && evictEldest(true)) {
+            // keep evicting until there is room
+        }
+        while (sessions.size() >= maxEntries && evictEldest(false)) {
+            // keep evicting until there is room
+        }
+
+        Session previous = sessions.put(sessionId, session);
+        if (previous != null) {
+            forget(previous);
+        }
+        synchronized (lruLock) {
+            linkLast(session, handshakeHead);
+        }
+        schedule(session);
+        created.incrementAndGet();
+        return session;
+    }
+
+    /**
+     * Look up a live session. Established sessions have their TTL extended on every lookup.
+     *
+     * @return The session, or null if it never existed, expired or was evicted
+     */
+    public Session get(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now >= session.expiresAt) {
+            if (sessions.remove(sessionId, session)) {
+                forget(session);
+                expired.incrementAndGet();
+            }
+            return null;
+        }
+        if (session.isEstablished()) {
+            // The wheel notices the later deadline when the old slot comes due
+            session.expiresAt = now + sessionTtlMillis;
+        }
+        touch(session, now);
+        return session;
+    }
+
+    /**
+     * Record the derived key for a session. The private key is dropped, since it is not needed again.
+     */
+    public void establish(Session session, SecretKey sessionKey) {
+        long now = System.currentTimeMillis();
+        session.sessionKey = sessionKey;
+        session.keyPair = null;
+        session.expiresAt = now + sessionTtlMillis;
+        session.lastTouched = now;
+        synchronized (lruLock) {
+            if (session.prev != null) {
+                unlinkLocked(session);
+                linkLast(session, establishedHead);
+            }
+        }
+    }
+
+    public void remove(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session != null) {
+            forget(session);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Advance the timer wheel, dropping every session whose deadline has passed.
+     */
+    @Scheduled(fixedDelayString = "${security.session.tick-ms:10000}")
+    public synchronized void expireDueSessions() {
+        long now = System.currentTimeMillis();
+        // Only ticks that have fully elapsed; everything left in them is past its deadline
+        long dueTick = now / tickMillis - 1;
+        if (dueTick <= lastTick) {
+            return;
+        }
+
+        long firstTick = Math.max(lastTick + 1, dueTick - wheel.length + 1);
+        int expiredNow = 0;
+        for (long tick = firstTick; tick <= dueTick; tick++) {
+            int slot = (int) Math.floorMod(tick, (long) wheel.length);
+            for (Session session : wheel[slot]) {
+                if (now >= session.expiresAt) {
+                    wheel[slot].remove(session);
+                    if (sessions.remove(session.sessionId, session)) {
+                        unlink(session);
+                        expired.incrementAndGet();
+                        expiredNow++;
+                    }
+                } else if (slotFor(session.expiresAt) != slot) {
+                    // Deadline was extended since it was scheduled
+                    wheel[slot].remove(session);
+                    schedule(session);
+                }
+            }
+        }
+        lastTick = dueTick;
+
+        if (expiredNow > 0) {
+            logger.info("Expired {} sessions, {} remain", expiredNow, sessions.size());
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", sessions.size());
+        metrics.put("maxEntries", maxEntries);
+        metrics.put("handshakes", handshakeCount);
+        metrics.put("maxHandshakes", maxHandshakes);
+        metrics.put("created", created.get());
+        metrics.put("expired", expired.get());
+        metrics.put("evicted", evicted.get());
+        return metrics;
+    }
+
+    /**
+     * Evict the least recently used half-open handshake, or, unless handshakesOnly is
+     * set and there are none, the least recently used established session.
+     */
+    private boolean evictEldest(boolean handshakesOnly) {
+        Session eldest;
+        synchronized (lruLock) {
+            eldest = handshakeHead.next;
+            if (eldest == handshakeHead) {
+                eldest = handshakesOnly ? null : establishedHead.next;
+            }
+            if (eldest == null || eldest == establishedHead) {
+                return false;
+            }
+            unlinkLocked(eldest);
+        }
+        if (sessions.remove(eldest.sessionId, eldest)) {
+            wheel[eldest.wheelSlot].remove(eldest);
+            evicted.incrementAndGet();
+            if (eldest.isEstablished()) {
+                logger.warn("Session store full ({} entries); evicted session {}", maxEntries, eldest.sessionId);
+            } else {
+                logger.debug("Handshake limit reached; evicted half-open session {}", eldest.sessionId);
+            }
+        }
+        return true;
+    }
+
+    private void touch(Session session, long now) {
+        if (now - session.lastTouched < TOUCH_GRANULARITY_MS) {
+            return;
+        }
+        session.lastTouched = now;
+        synchronized (lruLock) {
+            if (session.prev != null) {
+                Session list = session.list;
+                unlinkLocked(session);
+                linkLast(session, list);
+            }
+        }
+    }
+
+    private void forget(Session session) {
+        unlink(session);
+        wheel[session.wheelSlot].remove(session);
+    }
+
+    private void schedule(Session session) {
+        int slot = slotFor(session.expiresAt);
+        session.wheelSlot = slot;
+        wheel[slot].add(session);
+    }
+
+    private int slotFor(long deadline) {
+        return (int) Math.floorMod(deadline / tickMillis, (long) wheel.length);
+    }
+
+    private void unlink(Session session) {
+        synchronized (lruLock) {
+            if (session.prev != null) {
+                unlinkLocked(session);
+            }
+        }
+    }
+
+    // Caller holds lruLock
+    private void linkLast(Session session, Session head) {
+        session.prev = head.prev;
+        session.next = head;
+        head.prev.next = session;
+        head.prev = session;
+        session.list = head;
+        if (head == handshakeHead) {
+            handshakeCount++;
+        }
+    }
+
+    // Caller holds lruLock
+    private void unlinkLocked(Session session) {
+        session.prev.next = session.next;
+        session.next.prev = session.prev;
+        session.prev = null;
+        session.next = null;
+        if (session.list == handshakeHead) {
+            handshakeCount--;
+        }
+        session.list = null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,247 @@
+package com.backend.streetmed_backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stateless session tickets, so an established session can be served by any instance.
+ *
+ * After a handshake the session key and client ID are sealed with AES-GCM (which also
+ * authenticates them) under a master key for the current epoch. Epoch keys are derived
+ * from security.session.tickets.secret with HMAC-SHA256, so every instance sharing the
+ * secret derives the same keys without coordinating, and the key in use rotates every
+ * security.session.tickets.rotation-ms. A ticket is accepted only while it is unexpired
+ * and its epoch key is young enough to have issued it. A ticket used within
+ * security.session.tickets.refresh-ms of its expiry is reissued, so active clients stay
+ * logged in. Reissued tickets keep the original issue time, and none outlives
+ * security.session.tickets.max-lifetime-ms from it; after that the client has to do a
+ * new ECDH handshake, so a leaked ticket cannot be kept alive forever.
+ *
+ * Layout: "st2." + base64url(epoch (8 bytes) | IV | ciphertext and tag), where the
+ * plaintext is expiresAt (8) | issuedAt (8) | key length (1) | key | client ID length (2) | client ID.
+ */
+@Component
+public class SessionTicketService {
+    private static final Logger logger = LoggerFactory.getLogger(SessionTicketService.class);
+
+    // Tickets are told apart from UUID session IDs by this prefix
+    public static final String TICKET_PREFIX = "st2.";
+    // Response header that carries a reissued ticket
+    public static final String REFRESH_HEADER = "X-Session-Ticket";
+    private static final String KEY_LABEL = "streetmed-session-ticket|";
+
+    private final boolean enabled;
+    private final byte[] masterSecret;
+    private final long rotationMillis;
+    private final long ticketTtlMillis;
+    private final long refreshWindowMillis;
+    private final long maxLifetimeMillis;
+    private final EncryptionUtil encryptionUtil;
+
+    // Derived epoch keys; only the few epochs that can still hold live tickets are kept
+    private final Map<Long, SecretKey> epochKeys = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SessionTicketService(@Value("${security.session.tickets.enabled:false}") boolean enabled,
+                                @Value("${security.session.tickets.secret:}") String secret,
+                                @Value("${security.session.tickets.rotation-ms:86400000}") long rotationMillis,
+                                @Value("${security.session.tickets.ttl-ms:1800000}") long ticketTtlMillis,
+                                @Value("${security.session.tickets.refresh-ms:600000}") long refreshWindowMillis,
+                                @Value("${security.session.tickets.max-lifetime-ms:43200000}") long maxLifetimeMillis,
+                                EncryptionUtil encryptionUtil) {
+        if (enabled && (secret == null || secret.length() < 32)) {
+            throw new IllegalStateException(
+                    "security.session.tickets.secret must be at least 32 characters when session tickets are enabled");
+        }
+        this.enabled = enabled;
+        this.masterSecret = secret != null ? secret.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        this.rotationMillis = rotationMillis;
+        this.ticketTtlMillis = ticketTtlMillis;
+        this.refreshWindowMillis = refreshWindowMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.encryptionUtil = encryptionUtil;
+        if (enabled) {
+            logger.info("Stateless session tickets enabled (rotation {} ms, ticket TTL {} ms, max lifetime {} ms)",
+                    rotationMillis, ticketTtlMillis, maxLifetimeMillis);
+        }
+    }
+
+    /**
+     * Contents of a valid ticket.
+     */
+    public static class Ticket {
+        private final SecretKey sessionKey;
+        private final String clientId;
+        private final long expiresAt;
+        private final long issuedAt;
+
+        Ticket(SecretKey sessionKey, String clientId, long expiresAt, long issuedAt) {
+            this.sessionKey = sessionKey;
+            this.clientId = clientId;
+            this.expiresAt = expiresAt;
+            this.issuedAt = issuedAt;
+        }
+
+        public SecretKey getSessionKey() {
+            return sessionKey;
+        }
+
+        public String getClientId() {
+            return clientId;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        // When the handshake behind this ticket happened; kept across refreshes
+        public long getIssuedAt() {
+            return issuedAt;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isTicket(String sessionId) {
+        return sessionId != null && sessionId.startsWith(TICKET_PREFIX);
+    }
+
+    /**
+     * Seal a session key from a new handshake into a ticket under the current epoch key.
+     */
+    public String issue(SecretKey sessionKey, String clientId) {
+        return issue(sessionKey, clientId, System.currentTimeMillis());
+    }
+
+    /**
+     * Seal a session key into a ticket under the current epoch key, keeping the time of
+     * the original handshake. The expiry never goes past issuedAt plus the max lifetime.
+     */
+    public String issue(SecretKey sessionKey, String clientId, long issuedAt) {
+        long now = System.currentTimeMillis();
+        long epoch = now / rotationMillis;
+        byte[] key = sessionKey.getEncoded();
+        byte[] client = clientId != null ? clientId.getBytes(StandardCharsets.UTF_8) : new byte[0];
+
+        ByteBuffer payload = ByteBuffer.allocate(8 + 8 + 1 + key.length + 2 + client.length);
+        payload.putLong(Math.min(now + ticketTtlMillis, issuedAt + maxLifetimeMillis));
+        payload.putLong(issuedAt);
+        payload.put((byte) key.length);
+        payload.put(key);
+        payload.putShort((short) client.length);
+        payload.put(client);
+
+        byte[] sealed = encryptionUtil.encrypt(payload.array(), epochKey(epoch));
+        Arrays.fill(payload.array(), (byte) 0);
+
+        ByteBuffer ticket = ByteBuffer.allocate(8 + sealed.length);
+        ticket.putLong(epoch);
+        ticket.put(sealed);
+        return TICKET_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(ticket.array());
+    }
+
+    /**
+     * Open and check a ticket.
+     *
+     * @return The ticket contents, or null if it is malformed, tampered with, expired or from a retired epoch
+     */
+    public Ticket open(String ticket) {
+        if (!enabled || !isTicket(ticket)) {
+            return null;
+        }
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(ticket.substring(TICKET_PREFIX.length()));
+            if (raw.length < 8) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.wrap(raw, 0, 8);
+            long epoch = header.getLong();
+
+            long now = System.currentTimeMillis();
+            if (epoch > now / rotationMillis || epoch < oldestLiveEpoch(now)) {
+                return null;
+            }
+
+            byte[] payload = encryptionUtil.decrypt(Arrays.copyOfRange(raw, 8, raw.length), epochKey(epoch));
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            long expiresAt = buffer.getLong();
+            long issuedAt = buffer.getLong();
+            if (now >= expiresAt || now - issuedAt >= maxLifetimeMillis) {
+                return null;
+            }
+            byte[] key = new byte[buffer.get()];
+            buffer.get(key);
+            byte[] client = new byte[buffer.getShort()];
+            buffer.get(client);
+            Arrays.fill(payload, (byte) 0);
+
+            String clientId = client.length > 0 ? new String(client, StandardCharsets.UTF_8) : null;
+            return new Ticket(new SecretKeySpec(key, "AES"), clientId, expiresAt, issuedAt);
+        } catch (RuntimeException e) {
+            logger.debug("Rejected session ticket: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reissue a valid ticket that is close to expiry, with a full TTL under the current epoch
+     * key, or up to the end of its max lifetime if that comes first.
+     *
+     * @return The new ticket, or null if the ticket is invalid, not yet due for a refresh,
+     *         or already expiring at the end of its max lifetime
+     */
+    public String refreshIfExpiring(String ticket) {
+        Ticket opened = open(ticket);
+        if (opened == null || opened.getExpiresAt() - System.currentTimeMillis() > refreshWindowMillis) {
+            return null;
+        }
+        // At the lifetime cap a refresh would not extend anything; the client must handshake again
+        if (opened.getExpiresAt() >= opened.getIssuedAt() + maxLifetimeMillis) {
+            return null;
+        }
+        return issue(opened.getSessionKey(), opened.getClientId(), opened.getIssuedAt());
+    }
+
+    private long oldestLiveEpoch(long now) {
+        return Math.max(0, now - ticketTtlMillis) / rotationMillis;
+    }
+
+    private SecretKey epochKey(long epoch) {
+        SecretKey key = epochKeys.get(epoch);
+        if (key != null) {
+            return key;
+        }
+        key = deriveEpochKey(epoch);
+        epochKeys.put(epoch, key);
+
+        long oldest = oldestLiveEpoch(System.currentTimeMillis());
+        epochKeys.keySet().removeIf(e -> e < oldest);
+        return key;
+    }
+
+    private SecretKey deriveEpochKey(long epoch) {
+        try {
+            Mac hmac = Mac.getInstance("HmacSHA256");
+            hmac.init(new SecretKeySpec(masterSecret, "HmacSHA256"));
+            byte[] keyBytes = hmac.doFinal((KEY_LABEL + epoch).getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(keyBytes, "AES");
+        } catch (Exception e) {
+            throw new IllegalStateException("Error deriving session ticket key", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.entity.CargoItem;
+import com.backend.streetmed_backend.repository.Cargo.CargoItemRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versioned in-process snapshot of the cargo catalog.
+ *
+ * Each snapshot holds the item lists together with their pre-serialized JSON and an
+ * ETag, so the catalog endpoints neither query MySQL nor re-serialize while the
+ * catalog is unchanged. CargoItemService bumps the version on every write; the next
+ * read rebuilds the snapshot once.
+ */
+@Component
+public class CargoCatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(CargoCatalogCache.class);
+
+    private final CargoItemRepository cargoItemRepository;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public CargoCatalogCache(CargoItemRepository cargoItemRepository, ObjectMapper objectMapper) {
+        this.cargoItemRepository = cargoItemRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * An immutable item list with its JSON body and ETag.
+     */
+    public static final class CatalogView {
+        private final List<CargoItem> items;
+        private final byte[] json;
+        private final String etag;
+
+        CatalogView(List<CargoItem> items, byte[] json) {
+            this.items = List.copyOf(items);
+            this.json = json;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        }
+
+        public List<CargoItem> getItems() {
+            return items;
+        }
+
+        /**
+         * Shared buffer; callers must not modify it.
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    /**
+     * All catalog views built from the same catalog version.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final CatalogView allItems;
+        private final CatalogView lowStockItems;
+
+        Snapshot(long version, CatalogView allItems, CatalogView lowStockItems) {
+            this.version = version;
+            this.allItems = allItems;
+            this.lowStockItems = lowStockItems;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public CatalogView getAllItems() {
+            return allItems;
+        }
+
+        public CatalogView getLowStockItems() {
+            return lowStockItems;
+        }
+    }
+
+    /**
+     * The snapshot for the current catalog version, rebuilt if a write happened since the last build.
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.getVersion() == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            long target = version.get();
+            current = snapshot;
+            if (current == null || current.getVersion() != target) {
+                // A write during the build bumps the version again, so a stale build is never reused
+                current = build(target);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Mark the catalog as changed. Inside a transaction the version is bumped again after
+     * completion, so a rebuild that ran before the commit is discarded.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private Snapshot build(long targetVersion) {
+        List<CargoItem> allItems = cargoItemRepository.findAll();
+        List<CargoItem> lowStockItems = cargoItemRepository.findLowStockItems();
+        logger.debug("Rebuilt cargo catalog snapshot v{} with {} items", targetVersion, allItems.size());
+        return new Snapshot(targetVersion,
+                new CatalogView(allItems, serialize(allItems)),
+                new CatalogView(lowStockItems, serialize(lowStockItems)));
+    }
+
+    private byte[] serialize(List<CargoItem> items) {
+        try {
+            return objectMapper.writeValueAsBytes(items);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize cargo catalog", e);
+        }
+    }
+}
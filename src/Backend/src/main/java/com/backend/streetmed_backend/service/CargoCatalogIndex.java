@@ -0,0 +1,92 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.repository.Cargo.CargoItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive exact-name -> cargo item ID lookup.
+ *
+ * The map is built from one id/name query on first use and dropped whenever
+ * CargoItemService creates, renames or deletes an item, so order creation can
+ * resolve item names without hitting the database.
+ */
+@Component
+public class CargoCatalogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(CargoCatalogIndex.class);
+
+    private final CargoItemRepository cargoItemRepository;
+    private volatile Map<String, Integer> idsByName;
+
+    @Autowired
+    public CargoCatalogIndex(CargoItemRepository cargoItemRepository) {
+        this.cargoItemRepository = cargoItemRepository;
+    }
+
+    /**
+     * Look up a cargo item ID by its exact name, ignoring case and surrounding whitespace.
+     *
+     * @param name The item name
+     * @return The item ID, or null if no item has that name
+     */
+    public Integer resolveId(String name) {
+        if (name == null) {
+            return null;
+        }
+        return index().get(normalize(name));
+    }
+
+    /**
+     * Drop the index after a catalog change. When called inside a transaction the index
+     * is dropped again after commit, so a reload that raced the write can't stick.
+     */
+    public void invalidate() {
+        idsByName = null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    idsByName = null;
+                }
+            });
+        }
+    }
+
+    private Map<String, Integer> index() {
+        Map<String, Integer> current = idsByName;
+        if (current == null) {
+            synchronized (this) {
+                current = idsByName;
+                if (current == null) {
+                    current = load();
+                    idsByName = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Map<String, Integer> load() {
+        Map<String, Integer> loaded = new HashMap<>();
+        for (CargoItemRepository.CatalogEntry entry : cargoItemRepository.findCatalogEntries()) {
+            if (entry.getName() != null) {
+                loaded.putIfAbsent(normalize(entry.getName()), entry.getId());
+            }
+        }
+        logger.info("Cargo catalog index loaded with {} items", loaded.size());
+        return Collections.unmodifiableMap(loaded);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,41 +2,326 @@ package com.backend.streetmed_backend.service;
 
 import com.backend.streetmed_backend.document.CargoImage;
 import com.backend.streetmed_backend.repository.Cargo.CargoImageRepository;
+import com.mongodb.MongoGridFSException;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Service
 public class CargoImageService {
+    private static final Logger logger = LoggerFactory.getLogger(CargoImageService.class);
+    private static final String DEFAULT_FILENAME = "image";
+
     private final CargoImageRepository imageRepository;
+    private final GridFSBucket imageBucket;
+    private final CargoImageVariantGenerator variantGenerator;
+    private final MongoTemplate mongoTemplate;
+    private final Executor imageExecutor;
+
+    // Hottest thumbnails by GridFS file ID, least recently used evicted first
+    private final Map<String, byte[]> thumbnailCache;
 
     @Autowired
-    public CargoImageService(CargoImageRepository imageRepository) {
+    public CargoImageService(CargoImageRepository imageRepository,
+                             GridFSBucket imageBucket,
+                             CargoImageVariantGenerator variantGenerator,
+                             MongoTemplate mongoTemplate,
+                             @Qualifier("imageExecutor") Executor imageExecutor,
+                             @Value("${cargo.images.thumbnail-cache-size:512}") int thumbnailCacheSize) {
         this.imageRepository = imageRepository;
+        this.imageBucket = imageBucket;
+        this.variantGenerator = variantGenerator;
+        this.mongoTemplate = mongoTemplate;
+        this.imageExecutor = imageExecutor;
+        this.thumbnailCache = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > thumbnailCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Bytes to serve for one size of an image, with the headers that describe them.
+     */
+    public static class ImageContent {
+        private final Resource resource;
+        private final String contentType;
+        private final String contentHash;
+        private final boolean isFinal;
+
+        ImageContent(Resource resource, String contentType, String contentHash, boolean isFinal) {
+            this.resource = resource;
+            this.contentType = contentType;
+            this.contentHash = contentHash;
+            this.isFinal = isFinal;
+        }
+
+        public Resource getResource() { return resource; }
+        public String getContentType() { return contentType; }
+        public String getContentHash() { return contentHash; }
+
+        /**
+         * False when the original stands in for a variant that is still being generated,
+         * so the response must not be cached long-term.
+         */
+        public boolean isFinal() { return isFinal; }
     }
 
     public CargoImage storeImage(MultipartFile file, Integer cargoItemId) throws IOException {
         CargoImage image = new CargoImage();
         image.setFilename(file.getOriginalFilename());
         image.setContentType(file.getContentType());
-        image.setData(file.getBytes());
         image.setSize(file.getSize());
         image.setUploadDate(LocalDateTime.now());
 
+        // Stream the upload into GridFS, hashing it on the way for the ETag
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            image.setGridFsId(upload(image, in).toHexString());
+        }
+        image.setContentHash(HexFormat.of().formatHex(digest.digest()));
+
         if (cargoItemId != null) {
             image.setCargoItemId(cargoItemId.toString());
         }
-        return imageRepository.save(image);
+        CargoImage savedImage = imageRepository.save(image);
+
+        // Thumbnail and medium copies are built in the background
+        variantGenerator.generateAsync(savedImage.getId());
+        return savedImage;
     }
 
+    /**
+     * Load image metadata.
+     */
     public CargoImage getImage(String imageId) {
         return imageRepository.findById(imageId)
                 .orElseThrow(() -> new RuntimeException("Image not found with ID: " + imageId));
     }
 
+    /**
+     * Move images saved before the GridFS move out of their documents, once per startup,
+     * in the background. Reads serve the inline bytes until an image is migrated.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyImagesOnStartup() {
+        imageExecutor.execute(() -> {
+            try {
+                migrateLegacyImages();
+            } catch (Exception e) {
+                logger.error("Cargo image migration to GridFS stopped: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Migrate every image that still holds its bytes inline.
+     *
+     * @return Number of images migrated by this call
+     */
+    public int migrateLegacyImages() {
+        Query legacy = Query.query(Criteria.where("gridFsId").is(null).and("data").ne(null));
+        legacy.fields().include("_id");
+        List<String> imageIds = new ArrayList<>();
+        for (CargoImage image : mongoTemplate.find(legacy, CargoImage.class)) {
+            imageIds.add(image.getId());
+        }
+        if (imageIds.isEmpty()) {
+            return 0;
+        }
+
+        int migrated = 0;
+        for (String imageId : imageIds) {
+            CargoImage image = imageRepository.findById(imageId).orElse(null);
+            if (image != null && image.getGridFsId() == null && image.getData() != null && migrateToGridFs(image)) {
+                migrated++;
+            }
+        }
+        logger.info("Migrated {} of {} cargo images to GridFS", migrated, imageIds.size());
+        return migrated;
+    }
+
+    /**
+     * Open one size of an image. Nothing is read for the original or medium size until the
+     * response is written, and each read streams straight from GridFS, so ranges and 304s
+     * cost no image I/O. Thumbnails are small and served from an in-memory LRU.
+     *
+     * @param size The variant to serve, or null for the original
+     */
+    public ImageContent openImage(CargoImage image, CargoImageVariantGenerator.Size size) {
+        if (image.getGridFsId() == null) {
+            if (image.getData() != null) {
+                // Not migrated to GridFS yet; serve the inline bytes without caching them long-term
+                String contentHash = HexFormat.of().formatHex(sha256().digest(image.getData()));
+                return new ImageContent(new ByteArrayResource(image.getData()), image.getContentType(), contentHash, false);
+            }
+            throw new RuntimeException("Image has no stored content: " + image.getId());
+        }
+
+        if (size != null) {
+            if (image.getVariants() == null) {
+                // Not generated yet (old upload or still queued): serve the original for now
+                variantGenerator.generateAsync(image.getId());
+                return original(image, false);
+            }
+            CargoImage.Variant variant = image.getVariants().get(size.getKey());
+            if (variant != null) {
+                Resource resource = size == CargoImageVariantGenerator.Size.THUMB
+                        ? new ByteArrayResource(cachedThumbnail(variant.getGridFsId()))
+                        : new GridFsImageResource(imageBucket, new ObjectId(variant.getGridFsId()), variant.getSize());
+                return new ImageContent(resource, variant.getContentType(), variant.getContentHash(), true);
+            }
+            // No variant means the original is already smaller than this size
+        }
+        return original(image, true);
+    }
+
     public void deleteImage(String imageId) {
+        imageRepository.findById(imageId).ifPresent(image -> {
+            deleteFile(imageId, image.getGridFsId());
+            if (image.getVariants() != null) {
+                for (CargoImage.Variant variant : image.getVariants().values()) {
+                    thumbnailCache.remove(variant.getGridFsId());
+                    deleteFile(imageId, variant.getGridFsId());
+                }
+            }
+        });
         imageRepository.deleteById(imageId);
     }
-}
\ No newline at end of file
+
+    private ImageContent original(CargoImage image, boolean isFinal) {
+        Resource resource = new GridFsImageResource(imageBucket, new ObjectId(image.getGridFsId()), image.getSize());
+        return new ImageContent(resource, image.getContentType(), image.getContentHash(), isFinal);
+    }
+
+    private byte[] cachedThumbnail(String gridFsId) {
+        byte[] bytes = thumbnailCache.get(gridFsId);
+        if (bytes == null) {
+            try (InputStream in = imageBucket.openDownloadStream(new ObjectId(gridFsId))) {
+                bytes = in.readAllBytes();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read thumbnail " + gridFsId, e);
+            }
+            thumbnailCache.put(gridFsId, bytes);
+        }
+        return bytes;
+    }
+
+    private void deleteFile(String imageId, String gridFsId) {
+        if (gridFsId == null) {
+            return;
+        }
+        try {
+            imageBucket.delete(new ObjectId(gridFsId));
+        } catch (MongoGridFSException e) {
+            logger.warn("GridFS file {} for image {} was already gone: {}", gridFsId, imageId, e.getMessage());
+        }
+    }
+
+    /**
+     * Upload an image's inline bytes and point the document at them. The document is only
+     * updated while it has no GridFS file, so if another instance got there first the
+     * upload is deleted again instead of being orphaned.
+     *
+     * @return true if this call migrated the image
+     */
+    private boolean migrateToGridFs(CargoImage image) {
+        byte[] data = image.getData();
+        ObjectId fileId = upload(image, new ByteArrayInputStream(data));
+
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(image.getId()).and("gridFsId").is(null)),
+                new Update()
+                        .set("gridFsId", fileId.toHexString())
+                        .set("contentHash", HexFormat.of().formatHex(sha256().digest(data)))
+                        .set("size", (long) data.length)
+                        .unset("data"),
+                CargoImage.class);
+
+        if (result.getModifiedCount() == 0) {
+            deleteFile(image.getId(), fileId.toHexString());
+            return false;
+        }
+        logger.info("Migrated cargo image {} to GridFS", image.getId());
+        return true;
+    }
+
+    private ObjectId upload(CargoImage image, InputStream content) {
+        GridFSUploadOptions options = new GridFSUploadOptions()
+                .metadata(new Document("contentType", image.getContentType()));
+        String filename = image.getFilename() != null ? image.getFilename() : DEFAULT_FILENAME;
+        return imageBucket.uploadFromStream(filename, content, options);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Opens a fresh GridFS download stream on every read, so Spring can serve
+     * multi-part Range requests from the same resource.
+     */
+    private static class GridFsImageResource extends AbstractResource {
+        private final GridFSBucket bucket;
+        private final ObjectId fileId;
+        private final Long length;
+
+        GridFsImageResource(GridFSBucket bucket, ObjectId fileId, Long length) {
+            this.bucket = bucket;
+            this.fileId = fileId;
+            this.length = length;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return bucket.openDownloadStream(fileId);
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return length != null ? length : super.contentLength();
+        }
+
+        @Override
+        public String getDescription() {
+            return "GridFS file [" + fileId.toHexString() + "]";
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.document.CargoImage;
+import com.backend.streetmed_backend.repository.Cargo.CargoImageRepository;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Builds the thumbnail and medium variants of cargo images on the image executor.
+ *
+ * The original is decoded once with javax.imageio, scaled down in halving steps for
+ * quality, and each variant is written to GridFS. All variants are then recorded on
+ * the CargoImage document in one update. Sizes larger than the original are skipped;
+ * readers fall back to the original for those. Images above cargo.images.max-pixels
+ * are rejected from their header, before any pixel data is decoded.
+ */
+@Component
+public class CargoImageVariantGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(CargoImageVariantGenerator.class);
+
+    public enum Size {
+        THUMB("thumb", 160),
+        MEDIUM("medium", 640);
+
+        private final String key;
+        private final int maxDimension;
+
+        Size(String key, int maxDimension) {
+            this.key = key;
+            this.maxDimension = maxDimension;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getMaxDimension() {
+            return maxDimension;
+        }
+    }
+
+    private final CargoImageRepository imageRepository;
+    private final GridFSBucket imageBucket;
+    private final MongoTemplate mongoTemplate;
+    private final Executor imageExecutor;
+    private final long maxPixels;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public CargoImageVariantGenerator(CargoImageRepository imageRepository,
+                                      GridFSBucket imageBucket,
+                                      MongoTemplate mongoTemplate,
+                                      @Qualifier("imageExecutor") Executor imageExecutor,
+                                      @Value("${cargo.images.max-pixels:40000000}") long maxPixels) {
+        this.imageRepository = imageRepository;
+        this.imageBucket = imageBucket;
+        this.mongoTemplate = mongoTemplate;
+        this.imageExecutor = imageExecutor;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Queue variant generation for an image. Duplicate requests while one is running are ignored.
+     */
+    public void generateAsync(String imageId) {
+        if (!inFlight.add(imageId)) {
+            return;
+        }
+        try {
+            imageExecutor.execute(() -> {
+                try {
+                    generate(imageId);
+                } catch (Exception e) {
+                    logger.error("Failed to generate variants for image {}: {}", imageId, e.getMessage());
+                } finally {
+                    inFlight.remove(imageId);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(imageId);
+            throw e;
+        }
+    }
+
+    private void generate(String imageId) throws IOException {
+        CargoImage image = imageRepository.findById(imageId).orElse(null);
+        if (image == null || image.getGridFsId() == null || image.getVariants() != null) {
+            return;
+        }
+
+        BufferedImage source;
+        try (InputStream in = imageBucket.openDownloadStream(new ObjectId(image.getGridFsId()))) {
+            source = decode(imageId, in);
+        }
+
+        Map<String, CargoImage.Variant> variants = new HashMap<>();
+        if (source == null) {
+            // Unsupported format (e.g. WebP) or too large; record no variants so we don't retry forever
+            logger.warn("Image {} can't be decoded, serving the original for all sizes", imageId);
+        } else {
+            int longestSide = Math.max(source.getWidth(), source.getHeight());
+            boolean hasAlpha = source.getColorModel().hasAlpha();
+            for (Size size : Size.values()) {
+                if (longestSide <= size.getMaxDimension()) {
+                    continue;
+                }
+                variants.put(size.getKey(), store(image, size, scale(source, size.getMaxDimension(), hasAlpha), hasAlpha));
+            }
+        }
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(imageId)),
+                new Update().set("variants", variants),
+                CargoImage.class);
+        logger.info("Generated {} variants for image {}", variants.size(), imageId);
+    }
+
+    /**
+     * Decode an image, checking its dimensions from the header first.
+     *
+     * @return The decoded image, or null if no reader supports the format or it has more than maxPixels pixels
+     */
+    private BufferedImage decode(String imageId, InputStream in) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            if (stream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    logger.warn("Image {} is {}x{}, above the {} pixel limit", imageId,
+                            reader.getWidth(0), reader.getHeight(0), maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private CargoImage.Variant store(CargoImage image, Size size, BufferedImage scaled, boolean hasAlpha)
+            throws IOException {
+        // JPEG has no alpha channel, so transparent images stay PNG
+        String format = hasAlpha ? "png" : "jpeg";
+        String contentType = hasAlpha ? "image/png" : "image/jpeg";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(scaled, format, out)) {
+            throw new IOException("No ImageIO writer for " + format);
+        }
+        byte[] bytes = out.toByteArray();
+
+        String filename = (image.getFilename() != null ? image.getFilename() : "image") + "-" + size.getKey();
+        GridFSUploadOptions options = new GridFSUploadOptions()
+                .metadata(new Document("contentType", contentType).append("variantOf", image.getId()));
+        ObjectId fileId = imageBucket.uploadFromStream(filename, new ByteArrayInputStream(bytes), options);
+
+        CargoImage.Variant variant = new CargoImage.Variant();
+        variant.setGridFsId(fileId.toHexString());
+        variant.setContentType(contentType);
+        variant.setSize((long) bytes.length);
+        variant.setContentHash(sha256Hex(bytes));
+        return variant;
+    }
+
+    /**
+     * Scale so the longest side is maxDimension, halving repeatedly first so bilinear
+     * filtering doesn't skip pixels on large reductions.
+     */
+    private static BufferedImage scale(BufferedImage source, int maxDimension, boolean hasAlpha) {
+        double ratio = (double) maxDimension / Math.max(source.getWidth(), source.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        int type = hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -20,13 +20,19 @@ import java.util.Map;
 public class CargoItemService {
     private final CargoItemRepository cargoItemRepository;
     private final CargoImageService cargoImageService;
+    private final CargoCatalogIndex catalogIndex;
+    private final CargoCatalogCache catalogCache;
     private final Logger logger = LoggerFactory.getLogger(CargoItemService.class);
 
     @Autowired
     public CargoItemService(CargoItemRepository cargoItemRepository,
-                            CargoImageService cargoImageService) {
+                            CargoImageService cargoImageService,
+                            CargoCatalogIndex catalogIndex,
+                            CargoCatalogCache catalogCache) {
         this.cargoItemRepository = cargoItemRepository;
         this.cargoImageService = cargoImageService;
+        this.catalogIndex = catalogIndex;
+        this.catalogCache = catalogCache;
     }
 
     public CargoItem createItem(CargoItem item, MultipartFile image) throws IOException {
@@ -43,7 +49,10 @@ public class CargoItemService {
 
         item.setCreatedAt(LocalDateTime.now());
         item.setUpdatedAt(LocalDateTime.now());
-        return cargoItemRepository.save(item);
+        CargoItem savedItem = cargoItemRepository.save(item);
+        catalogIndex.invalidate();
+        catalogCache.invalidate();
+        return savedItem;
     }
 
     public CargoItem updateItem(Integer id, CargoItem updatedItem, MultipartFile image) throws IOException {
@@ -71,7 +80,10 @@ public class CargoItemService {
         }
 
         existingItem.setUpdatedAt(LocalDateTime.now());
-        return cargoItemRepository.save(existingItem);
+        CargoItem savedItem = cargoItemRepository.save(existingItem);
+        catalogIndex.invalidate();
+        catalogCache.invalidate();
+        return savedItem;
     }
 
     /**
@@ -98,7 +110,9 @@ public class CargoItemService {
             logger.warn("Item {} has reached low stock threshold: {}", item.getName(), quantity);
         }
 
-        return cargoItemRepository.save(item);
+        CargoItem savedItem = cargoItemRepository.save(item);
+        catalogCache.invalidate();
+        return savedItem;
     }
 
     public void updateSizeQuantity(Integer id, String size, Integer quantity) {
@@ -107,6 +121,7 @@ public class CargoItemService {
 
         item.updateSizeQuantity(size, quantity);
         cargoItemRepository.save(item);
+        catalogCache.invalidate();
     }
 
     /**
@@ -143,11 +158,13 @@ public class CargoItemService {
         }
 
         cargoItemRepository.delete(item);
+        catalogIndex.invalidate();
+        catalogCache.invalidate();
     }
 
     // Query methods
     public List<CargoItem> getAllItems() {
-        return cargoItemRepository.findAll();
+        return catalogCache.current().getAllItems().getItems();
     }
 
     public List<CargoItem> getAvailableItems() {
@@ -159,7 +176,15 @@ public class CargoItemService {
     }
 
     public List<CargoItem> getLowStockItems() {
-        return cargoItemRepository.findLowStockItems();
+        return catalogCache.current().getLowStockItems().getItems();
+    }
+
+    /**
+     * The cached catalog snapshot, with pre-serialized JSON for the catalog endpoints.
+     */
+    @Transactional(readOnly = true)
+    public CargoCatalogCache.Snapshot getCatalogSnapshot() {
+        return catalogCache.current();
     }
 
     public List<CargoItem> searchItems(String name) {
@@ -200,37 +225,70 @@ public class CargoItemService {
      */
     @Transactional
     public void reserveItems(Integer id, Integer quantity) {
-        CargoItem item = cargoItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Item not found"));
+        reserveItems(Map.of(id, quantity));
+    }
 
-        if (!checkAvailability(id, quantity)) {
-            throw new RuntimeException("Insufficient quantity available for item ID: " + id);
+    /**
+     * Reserve stock for a whole order in one round-trip.
+     * Either every item is reserved or the transaction is rolled back.
+     *
+     * @param quantitiesById Map of cargo item ID to the quantity to reserve
+     */
+    @Transactional
+    public void reserveItems(Map<Integer, Integer> quantitiesById) {
+        for (Integer quantity : quantitiesById.values()) {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Reserved quantity must be positive");
+            }
         }
 
-        // Reduce the available quantity
-        item.setQuantity(item.getQuantity() - quantity);
-        item.setUpdatedAt(LocalDateTime.now());
+        List<Integer> failed = cargoItemRepository.reserveQuantities(quantitiesById);
+        if (!failed.isEmpty()) {
+            // Throwing rolls back the rows that were already decremented
+            throw new RuntimeException("Insufficient quantity available for item ID: " + failed.get(0));
+        }
+        catalogCache.invalidate();
 
         // If quantity reaches minimum threshold, may need to trigger alert
-        if (item.getMinQuantity() != null && item.getQuantity() <= item.getMinQuantity()) {
-            logger.warn("Item {} has reached low stock threshold: {}", item.getName(), item.getQuantity());
+        for (CargoItemRepository.StockLevel stock : cargoItemRepository.findLowStockLevelsIn(quantitiesById.keySet())) {
+            logger.warn("Item {} has reached low stock threshold: {}", stock.getName(), stock.getQuantity());
         }
-
-        cargoItemRepository.save(item);
     }
 
     @Transactional
     public void reserveSizedItem(Integer id, String size, Integer quantity) {
-        CargoItem item = cargoItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Item not found"));
+        reserveSizedItems(id, Map.of(size, quantity));
+    }
 
-        if (!checkSizeAvailability(id, size, quantity)) {
-            throw new RuntimeException("Insufficient quantity available for size: " + size);
+    /**
+     * Reserve several sizes of one item in one round-trip, all-or-nothing.
+     *
+     * @param id The ID of the cargo item
+     * @param quantitiesBySize Map of size to the quantity to reserve
+     */
+    @Transactional
+    public void reserveSizedItems(Integer id, Map<String, Integer> quantitiesBySize) {
+        for (Integer quantity : quantitiesBySize.values()) {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Reserved quantity must be positive");
+            }
         }
 
-        Map<String, Integer> sizes = item.getSizeQuantities();
-        sizes.put(size, sizes.get(size) - quantity);
-        item.setSizeQuantities(sizes);
-        cargoItemRepository.save(item);
+        List<String> failed = cargoItemRepository.reserveSizeQuantities(id, quantitiesBySize);
+        if (!failed.isEmpty()) {
+            throw new RuntimeException("Insufficient quantity available for size: " + failed.get(0));
+        }
+        catalogCache.invalidate();
+    }
+
+    /**
+     * Return previously reserved stock to inventory (e.g. when an order is cancelled).
+     *
+     * @param quantitiesById Map of cargo item ID to the quantity to return
+     */
+    @Transactional
+    public void releaseItems(Map<Integer, Integer> quantitiesById) {
+        cargoItemRepository.restoreQuantities(quantitiesById);
+        catalogCache.invalidate();
     }
 }
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.entity.Service_entity.OutboundEmail;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the email outbox.
+ *
+ * Each batch is sent with a single JavaMailSender.send(MimeMessage...) call, which opens
+ * one SMTP connection for the whole batch instead of one per mail. Per-message failures
+ * reported by the server are retried individually; a connection or authentication
+ * failure retries the whole batch. A mail that cannot be built at all is dead-lettered
+ * without retries. At most email.outbox.max-per-minute messages are
+ * attempted per minute, so a large fan-out (e.g. a cancelled round) trickles out
+ * instead of tripping the SMTP provider's limits.
+ */
+@Component
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxService outboxService;
+    private final JavaMailSender mailSender;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxPerMinute;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    // Fixed one-minute rate window; only touched by the thread holding the draining flag
+    private long windowStart;
+    private int attemptedInWindow;
+
+    // Counters since startup
+    private final AtomicLong sentCount = new AtomicLong();
+    // Sent by sendDirect; kept apart so they do not dilute the queue latency average
+    private final AtomicLong directSent = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalSendMillis = new AtomicLong();
+    private final AtomicLong totalQueueLatencyMillis = new AtomicLong();
+    private final AtomicLong maxQueueLatencyMillis = new AtomicLong();
+
+    @Autowired
+    public EmailOutboxDispatcher(EmailOutboxService outboxService,
+                                 JavaMailSender mailSender,
+                                 @Value("${email.outbox.batch-size:50}") int batchSize,
+                                 @Value("${email.outbox.max-batches-per-run:10}") int maxBatchesPerRun,
+                                 @Value("${email.outbox.max-per-minute:120}") int maxPerMinute) {
+        this.outboxService = outboxService;
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxPerMinute = maxPerMinute;
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:2000}")
+    public void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int limit = Math.min(batchSize, remainingInWindow());
+                if (limit <= 0) {
+                    break;
+                }
+                List<OutboundEmail> batch = outboxService.claimDueBatch(limit);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                attemptedInWindow += batch.size();
+                sendBatch(batch);
+                if (batch.size() < limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Email outbox drain failed: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private int remainingInWindow() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= 60_000) {
+            windowStart = now;
+            attemptedInWindow = 0;
+        }
+        return maxPerMinute - attemptedInWindow;
+    }
+
+    private void sendBatch(List<OutboundEmail> batch) {
+        Map<MimeMessage, OutboundEmail> byMessage = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (OutboundEmail email : batch) {
+            try {
+                MimeMessage message = toMimeMessage(email);
+                byMessage.put(message, email);
+                messages.add(message);
+            } catch (Exception e) {
+                // A mail that cannot even be built will not get better on retry
+                recordDead(email, "Invalid message: " + e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = Collections.emptyMap();
+        long started = System.currentTimeMillis();
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = allFailed(messages, e);
+            }
+        } catch (Exception e) {
+            failures = allFailed(messages, e);
+        }
+        long elapsed = System.currentTimeMillis() - started;
+        batchCount.incrementAndGet();
+        totalSendMillis.addAndGet(elapsed);
+
+        List<Long> sentIds = new ArrayList<>(messages.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (MimeMessage message : messages) {
+            OutboundEmail email = byMessage.get(message);
+            Exception failure = failures.get(message);
+            if (failure != null) {
+                recordFailure(email, failure.getMessage());
+            } else {
+                sentIds.add(email.getId());
+                long latency = Duration.between(email.getCreatedAt(), now).toMillis();
+                totalQueueLatencyMillis.addAndGet(latency);
+                maxQueueLatencyMillis.accumulateAndGet(latency, Math::max);
+            }
+        }
+        outboxService.markSent(sentIds);
+        sentCount.addAndGet(sentIds.size());
+
+        logger.info("Email outbox batch: {} sent, {} failed in {} ms", sentIds.size(),
+                messages.size() - sentIds.size(), elapsed);
+    }
+
+    /**
+     * Send one mail right away, bypassing the outbox table. Used for mail that carries
+     * secrets (passwords, recovery codes), which must not be stored. There is no retry.
+     */
+    public void sendDirect(String recipient, String subject, String textBody, String htmlBody) throws Exception {
+        try {
+            mailSender.send(toMimeMessage(recipient, subject, textBody, htmlBody));
+            directSent.incrementAndGet();
+        } catch (Exception e) {
+            failedAttempts.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private MimeMessage toMimeMessage(OutboundEmail email) throws Exception {
+        return toMimeMessage(email.getRecipient(), email.getSubject(), email.getTextBody(), email.getHtmlBody());
+    }
+
+    private MimeMessage toMimeMessage(String recipient, String subject, String textBody, String htmlBody)
+            throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        boolean multipart = htmlBody != null;
+        MimeMessageHelper helper = new MimeMessageHelper(message, multipart, "UTF-8");
+        helper.setTo(recipient);
+        helper.setSubject(subject);
+        if (multipart) {
+            helper.setText(textBody, htmlBody);
+        } else {
+            helper.setText(textBody);
+        }
+        return message;
+    }
+
+    private Map<Object, Exception> allFailed(List<MimeMessage> messages, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        for (MimeMessage message : messages) {
+            failures.put(message, e);
+        }
+        return failures;
+    }
+
+    private void recordFailure(OutboundEmail email, String error) {
+        failedAttempts.incrementAndGet();
+        try {
+            if (outboxService.markFailed(email.getId(), error)) {
+                deadLettered.incrementAndGet();
+            }
+        } catch (Exception e) {
+            // The lease expires and the mail is retried anyway
+            logger.error("Could not record failure for email {}: {}", email.getId(), e.getMessage());
+        }
+    }
+
+    private void recordDead(OutboundEmail email, String error) {
+        failedAttempts.incrementAndGet();
+        try {
+            if (outboxService.markDead(email.getId(), error)) {
+                deadLettered.incrementAndGet();
+            }
+        } catch (Exception e) {
+            // The lease expires and the mail is picked up again
+            logger.error("Could not dead-letter email {}: {}", email.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Throughput and latency counters since startup, plus the current backlog.
+     */
+    public Map<String, Object> getMetrics() {
+        long sent = sentCount.get();
+        long batches = batchCount.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("sent", sent);
+        metrics.put("directSent", directSent.get());
+        metrics.put("failedAttempts", failedAttempts.get());
+        metrics.put("deadLettered", deadLettered.get());
+        metrics.put("batches", batches);
+        metrics.put("avgBatchSendMillis", batches > 0 ? totalSendMillis.get() / batches : 0);
+        metrics.put("avgQueueLatencyMillis", sent > 0 ? totalQueueLatencyMillis.get() / sent : 0);
+        metrics.put("maxQueueLatencyMillis", maxQueueLatencyMillis.get());
+        metrics.put("pending", outboxService.countByStatus(OutboundEmail.STATUS_PENDING));
+        metrics.put("dead", outboxService.countByStatus(OutboundEmail.STATUS_DEAD));
+        return metrics;
+    }
+}
@@ -0,0 +1,178 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.entity.Service_entity.OutboundEmail;
+import com.backend.streetmed_backend.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent queue of outgoing mail (the email_outbox table).
+ *
+ * enqueue joins the caller's transaction, so a mail is only sent if the change that
+ * caused it commits. EmailOutboxDispatcher claims due rows in batches with a short
+ * lease; rows whose sender died are picked up again once the lease expires. Bodies are
+ * cleared once a mail is sent or dead-lettered, and finished rows are purged after
+ * email.outbox.retention-ms. Mail carrying passwords or recovery codes never comes here;
+ * EmailService sends it directly.
+ */
+@Service
+public class EmailOutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration retention;
+
+    @Autowired
+    public EmailOutboxService(EmailOutboxRepository outboxRepository,
+                              @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+                              @Value("${email.outbox.base-backoff-ms:30000}") long baseBackoffMillis,
+                              @Value("${email.outbox.max-backoff-ms:3600000}") long maxBackoffMillis,
+                              @Value("${email.outbox.lease-ms:300000}") long leaseMillis,
+                              @Value("${email.outbox.retention-ms:604800000}") long retentionMillis) {
+        this.outboxRepository = outboxRepository;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofMillis(baseBackoffMillis);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMillis);
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.retention = Duration.ofMillis(retentionMillis);
+    }
+
+    /**
+     * Queue a mail for delivery. Joins the caller's transaction: the mail goes out only if
+     * the caller's change commits, and a failed insert is thrown and rolls that change back.
+     *
+     * @param htmlBody Optional HTML alternative, or null for plain text only
+     */
+    @Transactional
+    public OutboundEmail enqueue(String recipient, String subject, String textBody, String htmlBody) {
+        return outboxRepository.save(new OutboundEmail(recipient, subject, textBody, htmlBody));
+    }
+
+    /**
+     * Queue one message for many recipients in a single batched insert.
+     *
+     * @return Number of mails queued
+     */
+    @Transactional
+    public int enqueueAll(Collection<String> recipients, String subject, String textBody, String htmlBody) {
+        return outboxRepository.enqueueAll(recipients, subject, textBody, htmlBody);
+    }
+
+    /**
+     * Claim up to limit due mails for sending.
+     */
+    @Transactional
+    public List<OutboundEmail> claimDueBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboundEmail> batch = outboxRepository.lockDueBatch(now, limit);
+        if (!batch.isEmpty()) {
+            List<Long> ids = batch.stream().map(OutboundEmail::getId).collect(Collectors.toList());
+            outboxRepository.leaseUntil(ids, now.plus(lease));
+        }
+        return batch;
+    }
+
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboxRepository.markSent(ids, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Record a failed attempt and schedule a retry with exponential backoff,
+     * or move the mail to the dead-letter state after maxAttempts.
+     *
+     * @return true if the mail was dead-lettered
+     */
+    @Transactional
+    public boolean markFailed(Long id, String error) {
+        OutboundEmail email = outboxRepository.findById(id).orElse(null);
+        if (email == null) {
+            return false;
+        }
+
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(truncateError(error));
+
+        if (attempts >= maxAttempts) {
+            deadLetter(email);
+            logger.error("Giving up on email {} to {} after {} attempts: {}", id, email.getRecipient(), attempts, error);
+        } else {
+            email.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+        }
+        outboxRepository.save(email);
+        return OutboundEmail.STATUS_DEAD.equals(email.getStatus());
+    }
+
+    /**
+     * Move a mail straight to the dead-letter state, without retries, for failures
+     * that cannot succeed on another attempt (e.g. a message that cannot be built).
+     *
+     * @return true if the mail was dead-lettered
+     */
+    @Transactional
+    public boolean markDead(Long id, String error) {
+        OutboundEmail email = outboxRepository.findById(id).orElse(null);
+        if (email == null) {
+            return false;
+        }
+
+        email.setAttempts(email.getAttempts() + 1);
+        email.setLastError(truncateError(error));
+        deadLetter(email);
+        outboxRepository.save(email);
+        logger.error("Dead-lettered email {} to {} without retry: {}", id, email.getRecipient(), error);
+        return true;
+    }
+
+    private void deadLetter(OutboundEmail email) {
+        email.setStatus(OutboundEmail.STATUS_DEAD);
+        // Keep the delivery record for investigation, not the message itself
+        email.setTextBody("");
+        email.setHtmlBody(null);
+    }
+
+    private String truncateError(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    /**
+     * Delete sent and dead-lettered mail older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeFinished() {
+        int purged = outboxRepository.purgeFinishedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            logger.info("Purged {} finished emails from the outbox", purged);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long countByStatus(String status) {
+        return outboxRepository.countByStatus(status);
+    }
+
+    private Duration backoff(int attempts) {
+        // base x 2^(attempts - 1), capped
+        Duration delay = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -1,16 +1,19 @@
 package com.backend.streetmed_backend.service;
 
+import com.backend.streetmed_backend.service.email.EmailTemplateEngine;
+import com.backend.streetmed_backend.service.email.RenderedEmail;
+import com.backend.streetmed_backend.service.otp.OtpStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.format.DateTimeFormatter;
+import java.security.SecureRandom;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,69 +21,47 @@ import org.slf4j.LoggerFactory;
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService outboxService;
+    private final EmailTemplateEngine templateEngine;
+    private final EmailOutboxDispatcher outboxDispatcher;
+    private final Executor notificationExecutor;
     private final Logger logger = LoggerFactory.getLogger(EmailService.class);
-    private final Executor emailExecutor;
-    private final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("MMMM d, yyyy 'at' h:mm a");
 
     private boolean emailServiceEnabled = true;
 
-    // Store OTP codes with expiration timestamps
-    private final Map<String, OtpData> otpMap = new HashMap<>();
+    // Password recovery codes are valid for 15 minutes
+    private static final long OTP_TTL_MILLIS = 15 * 60 * 1000;
+    private static final SecureRandom otpRandom = new SecureRandom();
 
-    private static class OtpData {
-        private final String otp;
-        private final long expirationTime;
-
-        public OtpData(String otp, long expirationTime) {
-            this.otp = otp;
-            this.expirationTime = expirationTime;
-        }
-
-        public String getOtp() {
-            return otp;
-        }
-
-        public long getExpirationTime() {
-            return expirationTime;
-        }
-
-        public boolean isExpired() {
-            return System.currentTimeMillis() > expirationTime;
-        }
-    }
+    private final OtpStore otpStore;
 
     @Autowired
-    public EmailService(JavaMailSender mailSender,
-                        @Qualifier("emailExecutor") Executor emailExecutor) {
-        this.mailSender = mailSender;
-        this.emailExecutor = emailExecutor;
+    public EmailService(EmailOutboxService outboxService,
+                        EmailTemplateEngine templateEngine,
+                        EmailOutboxDispatcher outboxDispatcher,
+                        @Qualifier("notificationExecutor") Executor notificationExecutor,
+                        OtpStore otpStore) {
+        this.outboxService = outboxService;
+        this.templateEngine = templateEngine;
+        this.outboxDispatcher = outboxDispatcher;
+        this.notificationExecutor = notificationExecutor;
+        this.otpStore = otpStore;
     }
 
     // 1. Password Recovery - Generate and send OTP
+    // Throws OtpRateLimitException if this email has requested too many codes recently
     public String sendPasswordRecoveryEmail(String email) {
         // Generate a 6-digit OTP
         String otp = generateOtp();
 
         // Store OTP with 15-minute expiration
-        long expirationTime = System.currentTimeMillis() + (15 * 60 * 1000);
-        otpMap.put(email, new OtpData(otp, expirationTime));
+        otpStore.issue(otpKey(email), otp, OTP_TTL_MILLIS);
 
         if (emailServiceEnabled) {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    SimpleMailMessage message = new SimpleMailMessage();
-                    message.setTo(email);
-                    message.setSubject("StreetMed@Pitt Password Recovery");
-                    message.setText("Your password recovery code is: " + otp + "\n\n" +
-                            "This code will expire in 15 minutes. If you did not request this code, please ignore this email.");
-
-                    mailSender.send(message);
-                    logger.info("Password recovery email sent to: {}", email);
-                } catch (Exception e) {
-                    logger.error("Failed to send password recovery email to {}: {}", email, e.getMessage());
-                }
-            }, emailExecutor);
+            Map<String, Object> data = new HashMap<>();
+            data.put("otp", otp);
+            data.put("expiryMinutes", OTP_TTL_MILLIS / 60000);
+            sendSensitive("password-recovery", email, data, "Password recovery");
         } else {
             logger.info("Email service is disabled. Would have sent password recovery OTP: {} to: {}", otp, email);
         }
@@ -91,26 +72,10 @@ public class EmailService {
     // 2. New User Creation - Send credentials
     public void sendNewUserCredentials(String email, String username, String password) {
         if (emailServiceEnabled) {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    SimpleMailMessage message = new SimpleMailMessage();
-                    message.setTo(email);
-                    message.setSubject("Welcome to StreetMed - Your Account Details");
-                    message.setText("Hello " + username + ",\n\n" +
-                            "Your account on StreetMed has been created by an administrator.\n\n" +
-                            "Your login credentials are:\n" +
-                            "Username: " + username + "\n" +
-                            "Password: " + password + "\n\n" +
-                            "Please log in and change your password at your earliest convenience for security reasons.\n\n" +
-                            "Best regards,\n" +
-                            "StreetMed@Pitt Team");
-
-                    mailSender.send(message);
-                    logger.info("User credentials email sent to: {}", email);
-                } catch (Exception e) {
-                    logger.error("Failed to send user credentials email to {}: {}", email, e.getMessage());
-                }
-            }, emailExecutor);
+            Map<String, Object> data = new HashMap<>();
+            data.put("username", username);
+            data.put("password", password);
+            sendSensitive("new-user-credentials", email, data, "User credentials");
         } else {
             logger.info("Email service is disabled. Would have sent credentials for user: {} to: {}", username, email);
         }
@@ -119,27 +84,12 @@ public class EmailService {
     // 3. Volunteer Application Approval
     public void sendVolunteerApprovalEmail(String email, String firstName, String lastName) {
         if (emailServiceEnabled) {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    SimpleMailMessage message = new SimpleMailMessage();
-                    message.setTo(email);
-                    message.setSubject("StreetMed Volunteer Application Approved");
-                    message.setText("Dear " + firstName + " " + lastName + ",\n\n" +
-                            "We are pleased to inform you that your application to volunteer with StreetMed has been approved!\n\n" +
-                            "Your login credentials are:\n" +
-                            "Username: " + email + "\n" +
-                            "Password: streetmed@pitt\n\n" +
-                            "Please log in and change your password at your earliest convenience for security reasons.\n\n" +
-                            "Thank you for joining our team. We look forward to working with you!\n\n" +
-                            "Best regards,\n" +
-                            "StreetMed@Pitt Team");
-
-                    mailSender.send(message);
-                    logger.info("Volunteer approval email sent to: {}", email);
-                } catch (Exception e) {
-                    logger.error("Failed to send volunteer approval email to {}: {}", email, e.getMessage());
-                }
-            }, emailExecutor);
+            Map<String, Object> data = new HashMap<>();
+            data.put("firstName", firstName);
+            data.put("lastName", lastName);
+            data.put("email", email);
+            data.put("password", "streetmed@pitt");
+            sendSensitive("volunteer-approval", email, data, "Volunteer approval");
         } else {
             logger.info("Email service is disabled. Would have sent volunteer approval email to: {} ({} {})",
                     email, firstName, lastName);
@@ -149,41 +99,11 @@ public class EmailService {
     // 4. Round Signup Confirmation
     public void sendRoundSignupConfirmationEmail(String email, Map<String, Object> roundData) {
         if (emailServiceEnabled) {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    String roundTitle = (String) roundData.get("roundTitle");
-                    String startTime = formatDateTime((java.time.LocalDateTime) roundData.get("startTime"));
-                    String location = (String) roundData.get("location");
-                    String status = (String) roundData.get("status");
-
-                    SimpleMailMessage message = new SimpleMailMessage();
-                    message.setTo(email);
-                    message.setSubject("StreetMed Round Signup Confirmation");
-
-                    StringBuilder messageText = new StringBuilder();
-                    messageText.append("Thank you for signing up for the upcoming StreetMed round.\n\n");
-                    messageText.append("Round Details:\n");
-                    messageText.append("Title: ").append(roundTitle).append("\n");
-                    messageText.append("Time: ").append(startTime).append("\n");
-                    messageText.append("Location: ").append(location).append("\n");
-                    messageText.append("Status: ").append(status).append("\n\n");
-
-                    if ("CONFIRMED".equals(status)) {
-                        messageText.append("Your signup has been confirmed. We look forward to seeing you there!\n\n");
-                        messageText.append("Please remember that if you need to cancel, you must do so at least 24 hours before the round.");
-                    } else if ("WAITLISTED".equals(status)) {
-                        messageText.append("You have been added to the waitlist. We will notify you if a spot becomes available.");
-                    }
-
-                    messageText.append("\n\nBest regards,\nStreetMed@Pitt Team");
-
-                    message.setText(messageText.toString());
-                    mailSender.send(message);
-                    logger.info("Round signup confirmation email sent to: {}", email);
-                } catch (Exception e) {
-                    logger.error("Failed to send round signup confirmation email to {}: {}", email, e.getMessage());
-                }
-            }, emailExecutor);
+            Map<String, Object> data = new HashMap<>(roundData);
+            String status = (String) roundData.get("status");
+            data.put("confirmed", "CONFIRMED".equals(status));
+            data.put("waitlisted", "WAITLISTED".equals(status));
+            queue("round-signup-confirmation", email, data, "Round signup confirmation");
         } else {
             logger.info("Email service is disabled. Would have sent round signup confirmation email to: {}", email);
         }
@@ -191,71 +111,26 @@ public class EmailService {
 
     // 5. Round Cancellation Notification
     public void sendRoundCancellationEmail(String email, Map<String, Object> roundData) {
-        if (emailServiceEnabled) {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    String roundTitle = (String) roundData.get("roundTitle");
-                    String startTime = formatDateTime((java.time.LocalDateTime) roundData.get("startTime"));
-                    String location = (String) roundData.get("location");
-
-                    SimpleMailMessage message = new SimpleMailMessage();
-                    message.setTo(email);
-                    message.setSubject("StreetMed Round Cancellation Notice");
-
-                    StringBuilder messageText = new StringBuilder();
-                    messageText.append("Important Notice: A StreetMed round you signed up for has been cancelled.\n\n");
-                    messageText.append("Round Details:\n");
-                    messageText.append("Title: ").append(roundTitle).append("\n");
-                    messageText.append("Time: ").append(startTime).append("\n");
-                    messageText.append("Location: ").append(location).append("\n\n");
-                    messageText.append("We apologize for any inconvenience this may cause. ");
-                    messageText.append("Please check the website for other upcoming rounds you might be interested in joining.\n\n");
-                    messageText.append("Best regards,\nStreetMed@Pitt Team");
+        sendRoundCancellationEmails(List.of(email), roundData);
+    }
 
-                    message.setText(messageText.toString());
-                    mailSender.send(message);
-                    logger.info("Round cancellation email sent to: {}", email);
-                } catch (Exception e) {
-                    logger.error("Failed to send round cancellation email to {}: {}", email, e.getMessage());
-                }
-            }, emailExecutor);
+    // 5b. Round Cancellation Notification for a whole roster; rendered once for everyone.
+    // Like queue(), failures are thrown so they roll back with the caller's transaction.
+    public void sendRoundCancellationEmails(Collection<String> emails, Map<String, Object> roundData) {
+        if (emailServiceEnabled) {
+            RenderedEmail rendered = templateEngine.render("round-cancellation", roundData);
+            int queued = outboxService.enqueueAll(emails, rendered.getSubject(),
+                    rendered.getTextBody(), rendered.getHtmlBody());
+            logger.info("Round cancellation email queued for {} recipient(s)", queued);
         } else {
-            logger.info("Email service is disabled. Would have sent round cancellation email to: {}", email);
+            logger.info("Email service is disabled. Would have sent round cancellation email to {} recipient(s)", emails.size());
         }
     }
 
     // 6. Lottery Selection Notification
     public void sendLotteryWinEmail(String email, Map<String, Object> roundData) {
         if (emailServiceEnabled) {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    String roundTitle = (String) roundData.get("roundTitle");
-                    String startTime = formatDateTime((java.time.LocalDateTime) roundData.get("startTime"));
-                    String location = (String) roundData.get("location");
-
-                    SimpleMailMessage message = new SimpleMailMessage();
-                    message.setTo(email);
-                    message.setSubject("Good News: You're Confirmed for StreetMed Round");
-
-                    StringBuilder messageText = new StringBuilder();
-                    messageText.append("Good news! A spot has opened up for a StreetMed round you were waitlisted for, ");
-                    messageText.append("and you have been selected to participate.\n\n");
-                    messageText.append("Round Details:\n");
-                    messageText.append("Title: ").append(roundTitle).append("\n");
-                    messageText.append("Time: ").append(startTime).append("\n");
-                    messageText.append("Location: ").append(location).append("\n\n");
-                    messageText.append("Your status has been updated from WAITLISTED to CONFIRMED.\n\n");
-                    messageText.append("Please remember that if you need to cancel, you must do so at least 24 hours before the round.\n\n");
-                    messageText.append("We look forward to seeing you there!\n\n");
-                    messageText.append("Best regards,\nStreetMed@Pitt Team");
-
-                    message.setText(messageText.toString());
-                    mailSender.send(message);
-                    logger.info("Lottery win email sent to: {}", email);
-                } catch (Exception e) {
-                    logger.error("Failed to send lottery win email to {}: {}", email, e.getMessage());
-                }
-            }, emailExecutor);
+            queue("lottery-win", email, roundData, "Lottery win");
         } else {
             logger.info("Email service is disabled. Would have sent lottery win email to: {}", email);
         }
@@ -264,76 +139,68 @@ public class EmailService {
     // 7. Reminder Email for Upcoming Round
     public void sendRoundReminderEmail(String email, Map<String, Object> roundData) {
         if (emailServiceEnabled) {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    String roundTitle = (String) roundData.get("roundTitle");
-                    String startTime = formatDateTime((java.time.LocalDateTime) roundData.get("startTime"));
-                    String location = (String) roundData.get("location");
-                    String role = (String) roundData.get("role");
-
-                    SimpleMailMessage message = new SimpleMailMessage();
-                    message.setTo(email);
-                    message.setSubject("Reminder: Upcoming StreetMed Round");
-
-                    StringBuilder messageText = new StringBuilder();
-                    messageText.append("This is a friendly reminder about your upcoming StreetMed round.\n\n");
-                    messageText.append("Round Details:\n");
-                    messageText.append("Title: ").append(roundTitle).append("\n");
-                    messageText.append("Time: ").append(startTime).append(" (Tomorrow)\n");
-                    messageText.append("Location: ").append(location).append("\n");
-
-                    if (role != null && !role.equals("VOLUNTEER")) {
-                        messageText.append("Your Role: ").append(role).append("\n");
-                    }
-
-                    messageText.append("\nPlease remember that if you need to cancel, you must do so at least 24 hours before the round. ");
-                    messageText.append("After that time, cancellations are not permitted except for emergencies.\n\n");
-                    messageText.append("We look forward to seeing you there!\n\n");
-                    messageText.append("Best regards,\nStreetMed@Pitt Team");
-
-                    message.setText(messageText.toString());
-                    mailSender.send(message);
-                    logger.info("Round reminder email sent to: {}", email);
-                } catch (Exception e) {
-                    logger.error("Failed to send round reminder email to {}: {}", email, e.getMessage());
-                }
-            }, emailExecutor);
+            Map<String, Object> data = new HashMap<>(roundData);
+            String role = (String) roundData.get("role");
+            // Only team leads and clinicians get their role spelled out
+            if (role != null && !role.equals("VOLUNTEER")) {
+                data.put("specialRole", role);
+            }
+            queue("round-reminder", email, data, "Round reminder");
         } else {
             logger.info("Email service is disabled. Would have sent round reminder email to: {}", email);
         }
     }
 
-    // Verify OTP
-    public boolean verifyOtp(String email, String otp) {
-        OtpData otpData = otpMap.get(email);
-
-        if (otpData == null || otpData.isExpired()) {
-            return false;
+    // Mail carrying a password or recovery code is never written to the outbox table. It is
+    // sent from memory once the caller's transaction commits (or right away if there is none).
+    private void sendSensitive(String template, String email, Map<String, ?> data, String description) {
+        RenderedEmail rendered = templateEngine.render(template, data);
+        Runnable send = () -> {
+            try {
+                outboxDispatcher.sendDirect(email, rendered.getSubject(), rendered.getTextBody(), rendered.getHtmlBody());
+                logger.info("{} email sent to: {}", description, email);
+            } catch (Exception e) {
+                logger.error("Failed to send {} email to {}: {}", description.toLowerCase(), email, e.getMessage());
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notificationExecutor.execute(send);
+                }
+            });
+        } else {
+            notificationExecutor.execute(send);
         }
+    }
 
-        boolean isValid = otpData.getOtp().equals(otp);
+    // Render a template and put it in the outbox. The row joins the caller's transaction, so a
+    // failure is thrown and rolls the caller's change back with it rather than losing the mail.
+    private void queue(String template, String email, Map<String, ?> data, String description) {
+        RenderedEmail rendered = templateEngine.render(template, data);
+        outboxService.enqueue(email, rendered.getSubject(), rendered.getTextBody(), rendered.getHtmlBody());
+        logger.info("{} email queued for: {}", description, email);
+    }
 
-        // Remove OTP after verification (whether successful or not)
-        if (isValid || otpData.isExpired()) {
-            otpMap.remove(email);
+    // Verify OTP. A correct code is consumed; too many wrong guesses discard it.
+    public boolean verifyOtp(String email, String otp) {
+        OtpStore.VerifyResult result = otpStore.verify(otpKey(email), otp);
+        if (result == OtpStore.VerifyResult.TOO_MANY_ATTEMPTS) {
+            logger.warn("Too many wrong recovery codes for {}; code discarded", email);
         }
-
-        return isValid;
+        return result == OtpStore.VerifyResult.VALID;
     }
 
     // Helper method to generate a 6-digit OTP
     private String generateOtp() {
-        Random random = new Random();
-        int otp = 100000 + random.nextInt(900000); // Generates a 6-digit number
+        int otp = 100000 + otpRandom.nextInt(900000); // Generates a 6-digit number
         return String.valueOf(otp);
     }
 
-    // Helper method to format date and time
-    private String formatDateTime(java.time.LocalDateTime dateTime) {
-        if (dateTime == null) {
-            return "Not specified";
-        }
-        return dateTime.format(dateTimeFormatter);
+    private String otpKey(String email) {
+        return email.trim().toLowerCase();
     }
 
     // Check if email service is enabled
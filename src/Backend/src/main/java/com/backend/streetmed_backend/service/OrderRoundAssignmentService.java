@@ -1,14 +1,10 @@
 package com.backend.streetmed_backend.service;
 
-import com.backend.streetmed_backend.entity.order_entity.Order;
-import com.backend.streetmed_backend.entity.rounds_entity.Rounds;
 import com.backend.streetmed_backend.repository.Order.OrderRepository;
-import com.backend.streetmed_backend.repository.Rounds.RoundsRepository;
-import com.backend.streetmed_backend.repository.Rounds.RoundSignupRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,192 +16,340 @@ import java.util.*;
 public class OrderRoundAssignmentService {
     private static final Logger logger = LoggerFactory.getLogger(OrderRoundAssignmentService.class);
     private final OrderRepository orderRepository;
-    private final RoundsRepository roundsRepository;
-    private final RoundSignupRepository roundSignupRepository;
+    private final RoundCapacityLedger capacityLedger;
 
-    // Maximum ratio of orders to volunteers per round
-    private static final int MAX_ORDERS_PER_VOLUNTEER = 5;
+    // "earliest" picks the first round with capacity, "geo" the nearest by distance + time-to-round
+    @Value("${orders.assignment.matching-mode:earliest}")
+    private String matchingMode;
+
+    @Value("${orders.assignment.geo.cell-km:2.0}")
+    private double geoCellKm;
+
+    @Value("${orders.assignment.geo.km-per-hour:0.5}")
+    private double geoKmPerHour;
 
     @Autowired
     public OrderRoundAssignmentService(OrderRepository orderRepository,
-                                       RoundsRepository roundsRepository,
-                                       RoundSignupRepository roundSignupRepository) {
+                                       RoundCapacityLedger capacityLedger) {
         this.orderRepository = orderRepository;
-        this.roundsRepository = roundsRepository;
-        this.roundSignupRepository = roundSignupRepository;
+        this.capacityLedger = capacityLedger;
     }
 
     /**
-     * Assign unassigned orders to the closest upcoming rounds.
-     * This method is also scheduled to run periodically to handle new orders
-     * and rebalance assignments when rounds or volunteers change.
+     * Assign all unassigned orders to the closest upcoming rounds.
+     * Used as the low-frequency reconciliation pass by OrderAssignmentScheduler;
+     * day-to-day assignment happens incrementally through OrderAssignmentQueue.
+     *
+     * The capacity ledger is re-synced from the database first, orders are then
+     * reserved against its in-memory counters, and all round_id updates are written
+     * back in a single JDBC batch.
      */
-    @Scheduled(fixedRate = 3600000) // Run every hour
     @Transactional
     public void assignOrdersToRounds() {
         logger.info("Starting order assignment process");
 
+        // Correct any drift in the in-memory counters
+        capacityLedger.reload();
+
         // Get all unassigned orders, ordered by creation date (oldest first for priority)
-        List<Order> unassignedOrders = orderRepository.findByRoundIdIsNullOrderByRequestTimeAsc();
+        List<OrderRepository.PendingOrder> unassignedOrders = orderRepository.findPendingOrders();
 
         if (unassignedOrders.isEmpty()) {
             logger.info("No unassigned orders found");
-            return;
+        } else {
+            logger.info("Found {} unassigned orders to process", unassignedOrders.size());
+            int assigned = assignAndPersist(unassignedOrders, capacityLedger.upcomingRounds());
+            logger.info("Assigned {} of {} unassigned orders to rounds", assigned, unassignedOrders.size());
         }
 
-        logger.info("Found {} unassigned orders to process", unassignedOrders.size());
+        // Now balance any rounds that may be overloaded
+        rebalanceRoundAssignments(capacityLedger.upcomingRounds());
 
-        // Get all upcoming rounds with capacity information
-        List<Rounds> upcomingRounds = roundsRepository.findByStartTimeAfterAndStatusOrderByStartTimeAsc(
-                LocalDateTime.now(), "SCHEDULED");
+        logger.info("Order assignment process completed");
+    }
 
-        if (upcomingRounds.isEmpty()) {
-            logger.info("No upcoming rounds available for assignment");
+    /**
+     * Assign specific orders (typically just created) to the earliest round with capacity.
+     * Orders that were assigned in the meantime are skipped.
+     */
+    @Transactional
+    public void assignOrders(Collection<Integer> orderIds) {
+        if (orderIds.isEmpty()) {
             return;
         }
 
-        // Process each unassigned order
-        for (Order order : unassignedOrders) {
-            assignOrderToOptimalRound(order, upcomingRounds);
+        List<OrderRepository.PendingOrder> pendingOrders = orderRepository.findPendingOrdersIn(orderIds);
+        if (pendingOrders.isEmpty()) {
+            return;
         }
 
-        // Now balance any rounds that may be overloaded
-        rebalanceRoundAssignments(upcomingRounds);
-
-        logger.info("Order assignment process completed");
+        int assigned = assignAndPersist(pendingOrders, capacityLedger.upcomingRounds());
+        logger.info("Assigned {} of {} new orders to rounds", assigned, pendingOrders.size());
     }
 
     /**
-     * Assign a single order to the optimal round based on timing and capacity
+     * Fill rounds that just gained volunteers with pending orders, oldest orders first.
+     * Only the given rounds are considered as targets.
      */
     @Transactional
-    public void assignOrderToOptimalRound(Order order, List<Rounds> availableRounds) {
-        if (availableRounds.isEmpty()) {
-            logger.info("No rounds available for order {}", order.getOrderId());
+    public void fillRounds(Collection<Integer> roundIds) {
+        if (roundIds.isEmpty()) {
             return;
         }
 
-        // Find the best round for this order
-        Rounds optimalRound = findOptimalRound(order, availableRounds);
-
-        if (optimalRound != null) {
-            order.setRoundId(optimalRound.getRoundId());
-            orderRepository.save(order);
-            logger.info("Assigned order {} to round {}", order.getOrderId(), optimalRound.getRoundId());
-        } else {
-            logger.info("No suitable round found for order {}, keeping as pending", order.getOrderId());
+        List<RoundCapacityLedger.RoundCapacity> targets = new ArrayList<>();
+        for (RoundCapacityLedger.RoundCapacity capacity : capacityLedger.upcomingRounds()) {
+            if (roundIds.contains(capacity.getRoundId()) && capacity.getRemaining() > 0) {
+                targets.add(capacity);
+            }
         }
+        if (targets.isEmpty()) {
+            return;
+        }
+
+        List<OrderRepository.PendingOrder> unassignedOrders = orderRepository.findPendingOrders();
+        int assigned = assignAndPersist(unassignedOrders, targets);
+        logger.info("Filled rounds {} with {} pending orders", roundIds, assigned);
     }
 
     /**
-     * Find the optimal round for an order based on capacity and timing
+     * Reserve ledger slots for the given orders and write the assignments in one batch.
+     * Reservations for orders that were assigned or cancelled in the meantime are
+     * handed back right away, the rest if the transaction rolls back.
+     *
+     * @return Number of orders assigned
      */
-    private Rounds findOptimalRound(Order order, List<Rounds> rounds) {
-        // Check each round in chronological order
-        for (Rounds round : rounds) {
-            // Calculate current volunteer count for this round
-            long confirmedVolunteers = roundSignupRepository.countConfirmedVolunteersForRound(round.getRoundId());
-
-            // Skip rounds with no volunteers
-            if (confirmedVolunteers == 0) {
-                continue;
+    private int assignAndPersist(List<OrderRepository.PendingOrder> orders,
+                                 List<RoundCapacityLedger.RoundCapacity> rounds) {
+        Map<Integer, Integer> assignments = assignInMemory(orders, rounds);
+        if (assignments.isEmpty()) {
+            return 0;
+        }
+
+        Set<Integer> skipped;
+        try {
+            skipped = orderRepository.batchAssignRoundIds(assignments);
+        } catch (RuntimeException e) {
+            capacityLedger.settle(assignments.values(), false);
+            throw e;
+        }
+
+        List<Integer> applied = new ArrayList<>(assignments.size());
+        List<Integer> released = new ArrayList<>(skipped.size());
+        for (Map.Entry<Integer, Integer> assignment : assignments.entrySet()) {
+            if (skipped.contains(assignment.getKey())) {
+                released.add(assignment.getValue());
+            } else {
+                applied.add(assignment.getValue());
             }
+        }
+        capacityLedger.settle(released, false);
+        capacityLedger.settleOnCompletion(applied);
+        if (!skipped.isEmpty()) {
+            logger.info("{} orders were assigned or cancelled elsewhere, released their reservations", skipped.size());
+        }
+        return applied.size();
+    }
 
-            // Count current orders assigned to this round
-            long currentOrderCount = orderRepository.countByRoundId(round.getRoundId());
+    /**
+     * Assign orders to rounds against the capacity ledger.
+     *
+     * In the default mode each order goes to the earliest round that still has capacity.
+     * Rounds are walked in chronological order; once a reservation on a round fails it
+     * is full for the rest of the run, so a single cursor over the rounds is enough.
+     *
+     * In geo mode, orders with coordinates go to the round with the lowest
+     * distance + time-to-round cost, looked up through a RoundSpatialIndex built once
+     * per run. Orders without coordinates, or with no located round left, fall back
+     * to the earliest round.
+     *
+     * @return Map of order ID to assigned round ID
+     */
+    private Map<Integer, Integer> assignInMemory(List<OrderRepository.PendingOrder> orders,
+                                                 List<RoundCapacityLedger.RoundCapacity> rounds) {
+        Map<Integer, Integer> assignments = new LinkedHashMap<>();
+        RoundSpatialIndex spatialIndex = null;
+        if ("geo".equalsIgnoreCase(matchingMode)) {
+            spatialIndex = new RoundSpatialIndex(rounds, geoCellKm, geoKmPerHour, LocalDateTime.now());
+        }
+        int cursor = 0;
 
-            // Calculate maximum capacity based on volunteer count
-            long maxCapacity = confirmedVolunteers * MAX_ORDERS_PER_VOLUNTEER;
+        for (OrderRepository.PendingOrder order : orders) {
+            Integer roundId = null;
 
-            // If this round has capacity, use it
-            if (currentOrderCount < maxCapacity) {
-                return round;
+            if (spatialIndex != null && !spatialIndex.isEmpty()
+                    && order.getLatitude() != null && order.getLongitude() != null) {
+                roundId = reserveNearest(spatialIndex, order.getLatitude(), order.getLongitude());
+            }
+
+            if (roundId == null) {
+                while (cursor < rounds.size() && !capacityLedger.tryReserve(rounds.get(cursor).getRoundId())) {
+                    cursor++;
+                }
+                if (cursor < rounds.size()) {
+                    roundId = rounds.get(cursor).getRoundId();
+                }
             }
+
+            if (roundId == null) {
+                // Every round is full, nothing else can be placed this run
+                break;
+            }
+            assignments.put(order.getOrderId(), roundId);
         }
 
-        // If we get here, no round has capacity
-        return null;
+        if (assignments.size() < orders.size()) {
+            logger.info("No round capacity left, {} orders remain pending", orders.size() - assignments.size());
+        }
+        return assignments;
+    }
+
+    /**
+     * Reserve a slot on the lowest-cost located round. Retries if another thread
+     * takes the last slot between the lookup and the reservation.
+     */
+    private Integer reserveNearest(RoundSpatialIndex spatialIndex, double latitude, double longitude) {
+        while (true) {
+            RoundCapacityLedger.RoundCapacity best = spatialIndex.findBest(latitude, longitude);
+            if (best == null) {
+                return null;
+            }
+            if (capacityLedger.tryReserve(best.getRoundId())) {
+                return best.getRoundId();
+            }
+        }
     }
 
     /**
-     * Rebalance order assignments across rounds to optimize distribution
+     * Rebalance order assignments across rounds to optimize distribution.
+     *
+     * All orders of the given rounds are loaded in one query, moves are computed in
+     * memory (newest orders leave an overloaded round first, going to the earliest
+     * later round with ledger capacity), and every move is written in one batch.
+     * A move only applies while the order is still on its source round; the source
+     * slot is handed back once the move commits.
+     *
+     * @param rounds Upcoming rounds in chronological order
      */
     @Transactional
-    protected void rebalanceRoundAssignments(List<Rounds> rounds) {
+    protected void rebalanceRoundAssignments(List<RoundCapacityLedger.RoundCapacity> rounds) {
         if (rounds.isEmpty()) {
             return;
         }
 
         logger.info("Starting round assignment rebalancing");
 
+        List<Integer> roundIds = new ArrayList<>(rounds.size());
+        for (RoundCapacityLedger.RoundCapacity round : rounds) {
+            roundIds.add(round.getRoundId());
+        }
+
+        // Group all orders by round with a single query
+        Map<Integer, List<OrderRepository.RoundOrder>> ordersByRound = new HashMap<>();
+        for (OrderRepository.RoundOrder order : orderRepository.findRoundOrdersIn(roundIds)) {
+            ordersByRound.computeIfAbsent(order.getRoundId(), id -> new ArrayList<>()).add(order);
+        }
+
+        Map<Integer, Integer> moves = new LinkedHashMap<>();
+        Map<Integer, Integer> sources = new HashMap<>();
+
         // Check for overloaded rounds
         for (int i = 0; i < rounds.size(); i++) {
-            Rounds currentRound = rounds.get(i);
-
-            // Calculate capacity
-            long confirmedVolunteers = roundSignupRepository.countConfirmedVolunteersForRound(currentRound.getRoundId());
-            long maxCapacity = confirmedVolunteers * MAX_ORDERS_PER_VOLUNTEER;
-
-            // Get all orders for this round
-            List<Order> assignedOrders = orderRepository.findByRoundId(currentRound.getRoundId());
-
-            // If overloaded, try to move excess orders to later rounds
-            if (assignedOrders.size() > maxCapacity) {
-                // Sort orders by creation date (newest first, as they are lower priority)
-                assignedOrders.sort(Comparator.comparing(Order::getRequestTime).reversed());
-
-                // Calculate how many orders need to be moved
-                int excessOrders = (int) (assignedOrders.size() - maxCapacity);
-
-                // Try to find next rounds with capacity
-                List<Rounds> laterRounds = rounds.subList(i + 1, rounds.size());
-
-                // Process the excess orders
-                for (int j = 0; j < excessOrders && j < assignedOrders.size(); j++) {
-                    Order orderToMove = assignedOrders.get(j);
-
-                    // Try to find a round with capacity
-                    Rounds targetRound = findOptimalRound(orderToMove, laterRounds);
-
-                    if (targetRound != null) {
-                        // Move the order
-                        orderToMove.setRoundId(targetRound.getRoundId());
-                        orderRepository.save(orderToMove);
-                        logger.info("Rebalanced order {} from round {} to round {}",
-                                orderToMove.getOrderId(), currentRound.getRoundId(), targetRound.getRoundId());
-                    } else {
-                        // If no round has capacity, leave this order where it is
-                        logger.info("No available round with capacity to rebalance order {}", orderToMove.getOrderId());
-                    }
+            RoundCapacityLedger.RoundCapacity currentRound = rounds.get(i);
+            List<OrderRepository.RoundOrder> assignedOrders =
+                    ordersByRound.getOrDefault(currentRound.getRoundId(), Collections.emptyList());
+            int maxCapacity = currentRound.getMaxOrders();
+
+            if (assignedOrders.size() <= maxCapacity) {
+                continue;
+            }
+
+            // Sort orders by creation date (newest first, as they are lower priority)
+            List<OrderRepository.RoundOrder> candidates = new ArrayList<>(assignedOrders);
+            candidates.sort(Comparator.comparing(OrderRepository.RoundOrder::getRequestTime).reversed());
+            int excessOrders = assignedOrders.size() - maxCapacity;
+
+            // Only later rounds are considered, and a full round stays full for this pass
+            int cursor = i + 1;
+            for (int j = 0; j < excessOrders; j++) {
+                OrderRepository.RoundOrder orderToMove = candidates.get(j);
+
+                while (cursor < rounds.size() && !capacityLedger.tryReserve(rounds.get(cursor).getRoundId())) {
+                    cursor++;
                 }
+                if (cursor == rounds.size()) {
+                    // If no round has capacity, leave the remaining orders where they are
+                    logger.info("No available round with capacity to rebalance {} orders from round {}",
+                            excessOrders - j, currentRound.getRoundId());
+                    break;
+                }
+
+                Integer targetRoundId = rounds.get(cursor).getRoundId();
+                moves.put(orderToMove.getOrderId(), targetRoundId);
+                sources.put(orderToMove.getOrderId(), currentRound.getRoundId());
+                ordersByRound.computeIfAbsent(targetRoundId, id -> new ArrayList<>()).add(orderToMove);
+                logger.info("Rebalancing order {} from round {} to round {}",
+                        orderToMove.getOrderId(), currentRound.getRoundId(), targetRoundId);
             }
         }
 
-        logger.info("Round assignment rebalancing completed");
+        int moved = moves.isEmpty() ? 0 : persistMoves(moves, sources);
+        logger.info("Round assignment rebalancing completed, {} orders moved", moved);
     }
 
     /**
-     * Handle a volunteer cancellation by rebalancing affected rounds
+     * Write rebalancing moves in one guarded batch. Target reservations of moves that
+     * did not apply are handed back right away; the rest are settled when the
+     * transaction completes, and their source slots released if it commits.
+     *
+     * @return Number of orders moved
+     */
+    private int persistMoves(Map<Integer, Integer> moves, Map<Integer, Integer> sources) {
+        Set<Integer> skipped;
+        try {
+            skipped = orderRepository.batchMoveRoundIds(moves, sources);
+        } catch (RuntimeException e) {
+            capacityLedger.settle(moves.values(), false);
+            throw e;
+        }
+
+        List<Integer> appliedTargets = new ArrayList<>(moves.size());
+        List<Integer> appliedSources = new ArrayList<>(moves.size());
+        List<Integer> released = new ArrayList<>(skipped.size());
+        for (Map.Entry<Integer, Integer> move : moves.entrySet()) {
+            if (skipped.contains(move.getKey())) {
+                released.add(move.getValue());
+            } else {
+                appliedTargets.add(move.getValue());
+                appliedSources.add(sources.get(move.getKey()));
+            }
+        }
+        capacityLedger.settle(released, false);
+        capacityLedger.settleOnCompletion(appliedTargets);
+        capacityLedger.releaseOnCommit(appliedSources);
+        if (!skipped.isEmpty()) {
+            logger.info("{} orders were cancelled or reassigned elsewhere, not moved", skipped.size());
+        }
+        return appliedTargets.size();
+    }
+
+    /**
+     * Handle a volunteer cancellation by rebalancing the affected round and all later ones.
+     * Called from OrderAssignmentQueue, off the cancelling user's request thread.
      */
     @Transactional
     public void handleVolunteerCancellation(Integer roundId) {
         logger.info("Handling volunteer cancellation for round {}", roundId);
 
-        // Get all upcoming rounds
-        List<Rounds> upcomingRounds = roundsRepository.findByStartTimeAfterAndStatusOrderByStartTimeAsc(
-                LocalDateTime.now(), "SCHEDULED");
+        List<RoundCapacityLedger.RoundCapacity> upcomingRounds = capacityLedger.upcomingRounds();
 
         // Find the affected round
-        Optional<Rounds> affectedRoundOpt = upcomingRounds.stream()
-                .filter(r -> r.getRoundId().equals(roundId))
-                .findFirst();
-
-        if (affectedRoundOpt.isPresent()) {
-            // Rebalance this round and all future rounds
-            int indexOfAffectedRound = upcomingRounds.indexOf(affectedRoundOpt.get());
-            List<Rounds> affectedRounds = upcomingRounds.subList(indexOfAffectedRound, upcomingRounds.size());
-
-            rebalanceRoundAssignments(affectedRounds);
+        for (int i = 0; i < upcomingRounds.size(); i++) {
+            if (upcomingRounds.get(i).getRoundId().equals(roundId)) {
+                // Rebalance this round and all future rounds
+                rebalanceRoundAssignments(upcomingRounds.subList(i, upcomingRounds.size()));
+                return;
+            }
         }
     }
 }
\ No newline at end of file
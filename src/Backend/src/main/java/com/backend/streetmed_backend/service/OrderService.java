@@ -1,19 +1,24 @@
 package com.backend.streetmed_backend.service;
 
-import com.backend.streetmed_backend.entity.CargoItem;
 import com.backend.streetmed_backend.entity.order_entity.Order;
 import com.backend.streetmed_backend.entity.order_entity.OrderItem;
 import com.backend.streetmed_backend.entity.rounds_entity.Rounds;
 import com.backend.streetmed_backend.entity.user_entity.User;
+import com.backend.streetmed_backend.event.OrderAssignmentEvent;
 import com.backend.streetmed_backend.repository.Order.OrderRepository;
 import com.backend.streetmed_backend.repository.Rounds.RoundsRepository;
 import com.backend.streetmed_backend.repository.User.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 @Transactional
@@ -21,22 +26,29 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final CargoItemService cargoItemService;
+    private final CargoCatalogIndex catalogIndex;
     private static final int GUEST_USER_ID = -1;
+    public static final int MAX_ORDER_PAGE_SIZE = 500;
     private final RoundsRepository roundsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoundCapacityLedger capacityLedger;
     private static final java.util.logging.Logger logger = java.util.logging.Logger.getLogger(OrderService.class.getName());
 
-    @Autowired
-    private OrderRoundAssignmentService orderRoundAssignmentService;
-
     @Autowired
     public OrderService(OrderRepository orderRepository,
                         UserRepository userRepository,
                         CargoItemService cargoItemService,
-                        RoundsRepository roundsRepository) {
+                        CargoCatalogIndex catalogIndex,
+                        RoundsRepository roundsRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        RoundCapacityLedger capacityLedger) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.cargoItemService = cargoItemService;
+        this.catalogIndex = catalogIndex;
         this.roundsRepository = roundsRepository;
+        this.eventPublisher = eventPublisher;
+        this.capacityLedger = capacityLedger;
     }
 
     // Add to OrderService.java
@@ -69,8 +81,16 @@ public class OrderService {
             }
         }
 
+        Integer previousRoundId = order.getRoundId();
         order.setRoundId(roundId);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+
+        // Manual assignments override capacity, just keep the ledger counts in step
+        if (!Objects.equals(previousRoundId, roundId)) {
+            capacityLedger.release(previousRoundId);
+            capacityLedger.recordAssignment(roundId);
+        }
+        return savedOrder;
     }
 
     /**
@@ -93,40 +113,21 @@ public class OrderService {
             throw new RuntimeException("Order must contain at least one item");
         }
 
-        // Reserve inventory items (decrement quantities temporarily)
-        Map<String, Integer> itemQuantityMap = new HashMap<>();
+        // Resolve each item by exact name and aggregate quantities per cargo item
+        Map<Integer, Integer> quantitiesById = new HashMap<>();
         for (OrderItem item : items) {
-            String itemName = item.getItemName();
-            int quantity = item.getQuantity();
-
-            // Aggregate quantities for items that might appear multiple times
-            itemQuantityMap.put(itemName,
-                    itemQuantityMap.getOrDefault(itemName, 0) + quantity);
-        }
-
-        // Check inventory availability and reserve items
-        for (Map.Entry<String, Integer> entry : itemQuantityMap.entrySet()) {
-            String itemName = entry.getKey();
-            int requestedQuantity = entry.getValue();
-
-            // Find the cargo item by name
-            List<CargoItem> matchingItems = cargoItemService.searchItems(itemName);
-            if (matchingItems.isEmpty()) {
-                throw new RuntimeException("Item not found: " + itemName);
+            Integer cargoItemId = catalogIndex.resolveId(item.getItemName());
+            if (cargoItemId == null) {
+                throw new RuntimeException("Item not found: " + item.getItemName());
             }
-
-            // Use the first matching item (assuming item names are unique)
-            CargoItem cargoItem = matchingItems.get(0);
-
-            // Check if there's enough inventory
-            if (!cargoItem.isAvailableInQuantity(requestedQuantity)) {
-                throw new RuntimeException("Insufficient quantity available for: " + itemName);
-            }
-
-            // Reserve the inventory (temporarily reduce quantity)
-            cargoItemService.reserveItems(cargoItem.getId(), requestedQuantity);
+            item.setCargoItemId(cargoItemId);
+            quantitiesById.merge(cargoItemId, item.getQuantity(), Integer::sum);
         }
 
+        // Reserve the whole order in one all-or-nothing batch;
+        // stock is checked and decremented atomically in the database
+        cargoItemService.reserveItems(quantitiesById);
+
         // Set summary information
         order.setItemName(items.size() + " items"); // e.g. "3 items"
         order.setQuantity(items.stream()
@@ -141,19 +142,8 @@ public class OrderService {
         // Save the order first
         Order savedOrder = orderRepository.save(order);
 
-        // Try to assign it to a round immediately
-        try {
-            List<Rounds> upcomingRounds = roundsRepository.findByStartTimeAfterAndStatusOrderByStartTimeAsc(
-                    LocalDateTime.now(), "SCHEDULED");
-            orderRoundAssignmentService.assignOrderToOptimalRound(savedOrder, upcomingRounds);
-
-            // If assignment was successful, reload the order to get updated roundId
-            savedOrder = orderRepository.findById(savedOrder.getOrderId()).orElse(savedOrder);
-        } catch (Exception e) {
-            // Log error but don't fail the order creation
-            logger.severe("Failed to assign order to round: " + e.getMessage());
-            logger.throwing(OrderService.class.getName(), "createOrder", e);
-        }
+        // Queue round assignment; it runs once this transaction commits
+        eventPublisher.publishEvent(OrderAssignmentEvent.orderCreated(savedOrder.getOrderId()));
 
         return savedOrder;
     }
@@ -178,24 +168,123 @@ public class OrderService {
         return order;
     }
 
+    /**
+     * One page of orders, newest first, with the cursor for the next page.
+     */
+    public static class OrderPage {
+        private final List<Order> orders;
+        private final String nextCursor;
+
+        OrderPage(List<Order> orders, String nextCursor) {
+            this.orders = orders;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Order> getOrders() {
+            return orders;
+        }
+
+        /**
+         * Opaque cursor for the next page, or null if this was the last page.
+         */
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    /**
+     * Get a page of all orders (volunteer view).
+     *
+     * @param status Only orders with this status, or null
+     * @param roundId Only orders on this round, or null
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Page size, capped at MAX_ORDER_PAGE_SIZE
+     */
     @Transactional(readOnly = true)
-    public List<Order> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        // Initialize the collections
-        orders.forEach(order -> order.getOrderItems().size()); // Force initialization
-        return orders;
+    public OrderPage getAllOrders(String status, Integer roundId, String cursor, int limit) {
+        return findOrderPage(status, roundId, null, cursor, limit);
     }
 
+    /**
+     * Get a page of a user's orders. Volunteers see every order, as before.
+     */
     @Transactional(readOnly = true)
-    public List<Order> getUserOrders(Integer userId, String userRole) {
-        List<Order> orders;
-        if ("VOLUNTEER".equals(userRole)) {
-            orders = orderRepository.findAll();
-        } else {
-            orders = orderRepository.findByUserId(userId);
+    public OrderPage getUserOrders(Integer userId, String userRole, String status, String cursor, int limit) {
+        Integer ownerFilter = "VOLUNTEER".equals(userRole) ? null : userId;
+        return findOrderPage(status, null, ownerFilter, cursor, limit);
+    }
+
+    /**
+     * Stream every matching order, newest first, without holding more than one page in memory.
+     * Pages are loaded lazily as the stream is consumed, so the caller should not need a
+     * transaction open for the whole walk.
+     */
+    public Stream<Order> streamAllOrders(String status, Integer roundId, int pageSize) {
+        Iterator<Order> iterator = new Iterator<>() {
+            private Iterator<Order> current = Collections.emptyIterator();
+            private String cursor;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && !exhausted) {
+                    OrderPage page = findOrderPage(status, roundId, null, cursor, pageSize);
+                    current = page.getOrders().iterator();
+                    cursor = page.getNextCursor();
+                    exhausted = cursor == null;
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Order next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    private OrderPage findOrderPage(String status, Integer roundId, Integer userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_ORDER_PAGE_SIZE));
+        LocalDateTime afterTime = null;
+        Integer afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                afterTime = LocalDateTime.parse(raw.substring(0, separator));
+                afterId = Integer.valueOf(raw.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
         }
-        orders.forEach(order -> order.getOrderItems().size()); // Force initialization
-        return orders;
+
+        // Ask for one extra ID to know whether there is a next page
+        List<Integer> ids = orderRepository.findOrderPageIds(status, roundId, userId, afterTime, afterId,
+                PageRequest.of(0, pageSize + 1));
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+        if (ids.isEmpty()) {
+            return new OrderPage(Collections.emptyList(), null);
+        }
+
+        List<Order> orders = orderRepository.findWithItemsByOrderIdIn(ids);
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = orders.get(orders.size() - 1);
+            nextCursor = encodeCursor(last.getRequestTime(), last.getOrderId());
+        }
+        return new OrderPage(orders, nextCursor);
+    }
+
+    private static String encodeCursor(LocalDateTime requestTime, Integer orderId) {
+        String raw = requestTime + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
     public List<Order> getOrdersByStatus(String status) {
@@ -297,33 +386,20 @@ public class OrderService {
         // Get all items in the order
         List<OrderItem> orderItems = order.getOrderItems();
 
-        // Group items by name and sum quantities
-        Map<String, Integer> itemQuantityMap = new HashMap<>();
+        // Group items by cargo item and sum quantities
+        Map<Integer, Integer> quantitiesById = new HashMap<>();
         for (OrderItem item : orderItems) {
-            String itemName = item.getItemName();
-            int quantity = item.getQuantity();
-
-            itemQuantityMap.put(itemName,
-                    itemQuantityMap.getOrDefault(itemName, 0) + quantity);
-        }
-
-        // Restore quantities to inventory
-        for (Map.Entry<String, Integer> entry : itemQuantityMap.entrySet()) {
-            String itemName = entry.getKey();
-            int quantity = entry.getValue();
-
-            // Find the cargo item by name
-            List<CargoItem> matchingItems = cargoItemService.searchItems(itemName);
-            if (!matchingItems.isEmpty()) {
-                CargoItem cargoItem = matchingItems.get(0);
-
-                // Restore the quantity (add back to inventory)
-                cargoItemService.updateQuantity(
-                        cargoItem.getId(),
-                        cargoItem.getQuantity() + quantity
-                );
+            // Older orders only carry the item name
+            Integer cargoItemId = item.getCargoItemId() != null
+                    ? item.getCargoItemId()
+                    : catalogIndex.resolveId(item.getItemName());
+            if (cargoItemId != null) {
+                quantitiesById.merge(cargoItemId, item.getQuantity(), Integer::sum);
             }
         }
+
+        // Add back to inventory without a read-modify-write race
+        cargoItemService.releaseItems(quantitiesById);
     }
 
     private void validateUser(Integer userId) {
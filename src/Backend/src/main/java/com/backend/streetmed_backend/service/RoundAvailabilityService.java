@@ -0,0 +1,148 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.entity.rounds_entity.RoundAvailability;
+import com.backend.streetmed_backend.repository.Rounds.RoundAvailabilityRepository;
+import com.backend.streetmed_backend.repository.Rounds.RoundSignupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Maintains the round_availability read model.
+ *
+ * RoundSignupService reports every signup change here inside its own transaction, so
+ * the counters commit or roll back together with the signup. Hot paths shift the
+ * counters with a single UPDATE; rarer bulk changes recount the round from
+ * round_signups.
+ */
+@Service
+@Transactional
+public class RoundAvailabilityService {
+    private static final Logger logger = LoggerFactory.getLogger(RoundAvailabilityService.class);
+
+    private final RoundAvailabilityRepository availabilityRepository;
+    private final RoundSignupRepository roundSignupRepository;
+
+    @Autowired
+    public RoundAvailabilityService(RoundAvailabilityRepository availabilityRepository,
+                                    RoundSignupRepository roundSignupRepository) {
+        this.availabilityRepository = availabilityRepository;
+        this.roundSignupRepository = roundSignupRepository;
+    }
+
+    /**
+     * Availability of a round. Rounds without a row yet are recounted and stored.
+     */
+    public RoundAvailability getAvailability(Integer roundId) {
+        return availabilityRepository.findById(roundId)
+                .orElseGet(() -> recount(roundId));
+    }
+
+    /**
+     * Start tracking a newly created round.
+     */
+    public void initialize(Integer roundId) {
+        if (!availabilityRepository.existsById(roundId)) {
+            availabilityRepository.save(new RoundAvailability(roundId));
+        }
+    }
+
+    public void signupAdded(Integer roundId, String status, String role) {
+        applyChange(roundId, status, role, 1);
+    }
+
+    public void signupRemoved(Integer roundId, String status, String role) {
+        applyChange(roundId, status, role, -1);
+    }
+
+    /**
+     * Waitlisted volunteers confirmed by the lottery.
+     */
+    public void volunteersPromoted(Integer roundId, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (availabilityRepository.applyDelta(roundId, count, -count, 0, 0, LocalDateTime.now()) == 0) {
+            recount(roundId);
+        }
+    }
+
+    /**
+     * Rebuild a round's counters from round_signups (bulk changes and missing rows).
+     */
+    public RoundAvailability recount(Integer roundId) {
+        RoundAvailability availability = availabilityRepository.findById(roundId)
+                .orElseGet(() -> new RoundAvailability(roundId));
+
+        List<RoundSignupRepository.SignupCounts> counts = roundSignupRepository.findSignupCounts(List.of(roundId));
+        apply(availability, counts.isEmpty() ? null : counts.get(0));
+        return availabilityRepository.save(availability);
+    }
+
+    /**
+     * Create rows for rounds that predate the read model, in one counting query.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            List<Integer> missing = availabilityRepository.findRoundIdsWithoutAvailability();
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            Map<Integer, RoundSignupRepository.SignupCounts> countsByRound = new HashMap<>();
+            for (RoundSignupRepository.SignupCounts counts : roundSignupRepository.findSignupCounts(missing)) {
+                countsByRound.put(counts.getRoundId(), counts);
+            }
+
+            List<RoundAvailability> rows = new ArrayList<>(missing.size());
+            for (Integer roundId : missing) {
+                RoundAvailability availability = new RoundAvailability(roundId);
+                apply(availability, countsByRound.get(roundId));
+                rows.add(availability);
+            }
+            availabilityRepository.saveAll(rows);
+            logger.info("Backfilled round availability for {} rounds", rows.size());
+        } catch (Exception e) {
+            // Missing rows are recounted on first read, so startup can continue
+            logger.error("Failed to backfill round availability: {}", e.getMessage());
+        }
+    }
+
+    private void applyChange(Integer roundId, String status, String role, int delta) {
+        int confirmed = 0, waitlisted = 0, teamLeads = 0, clinicians = 0;
+        if ("WAITLISTED".equals(status)) {
+            waitlisted = delta;
+        } else if ("CONFIRMED".equals(status)) {
+            switch (role) {
+                case "TEAM_LEAD" -> teamLeads = delta;
+                case "CLINICIAN" -> clinicians = delta;
+                default -> confirmed = delta;
+            }
+        } else {
+            // Other statuses (e.g. CANCELED) are not counted
+            return;
+        }
+
+        if (availabilityRepository.applyDelta(roundId, confirmed, waitlisted, teamLeads, clinicians,
+                LocalDateTime.now()) == 0) {
+            // No row yet; the recount sees this change since the signup is flushed first
+            recount(roundId);
+        }
+    }
+
+    private static void apply(RoundAvailability availability, RoundSignupRepository.SignupCounts counts) {
+        availability.setConfirmedVolunteers(counts != null ? counts.getConfirmedVolunteers().intValue() : 0);
+        availability.setWaitlistSize(counts != null ? counts.getWaitlisted().intValue() : 0);
+        availability.setTeamLeads(counts != null ? counts.getTeamLeads().intValue() : 0);
+        availability.setClinicians(counts != null ? counts.getClinicians().intValue() : 0);
+        availability.setUpdatedAt(LocalDateTime.now());
+    }
+}
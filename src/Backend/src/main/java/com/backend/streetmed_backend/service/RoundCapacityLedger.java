@@ -0,0 +1,372 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.entity.rounds_entity.Rounds;
+import com.backend.streetmed_backend.event.OrderAssignmentEvent;
+import com.backend.streetmed_backend.repository.Rounds.RoundsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory view of order capacity for every upcoming scheduled round.
+ *
+ * Each round keeps its confirmed volunteer count and assigned order count in atomic
+ * counters. Orders are placed with a compare-and-set reservation, so concurrent
+ * assignments can never push a round past MAX_ORDERS_PER_VOLUNTEER x volunteers.
+ * The ledger is warmed from the database at startup and re-synced by the
+ * reconciliation pass in OrderRoundAssignmentService.
+ *
+ * A reservation stays unsettled until the transaction that writes its order commits.
+ * A reload updates the existing counters in place, to the database count plus the
+ * unsettled reservations, and holds a write lock so no reservation can interleave.
+ */
+@Component
+public class RoundCapacityLedger {
+    private static final Logger logger = LoggerFactory.getLogger(RoundCapacityLedger.class);
+
+    // Maximum ratio of orders to volunteers per round
+    public static final int MAX_ORDERS_PER_VOLUNTEER = 5;
+
+    private final RoundsRepository roundsRepository;
+    private final Map<Integer, RoundCapacity> rounds = new ConcurrentHashMap<>();
+    private volatile boolean warmed = false;
+
+    // Reservations and releases take the read lock, reload() the write lock
+    private final ReadWriteLock reloadLock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public RoundCapacityLedger(RoundsRepository roundsRepository) {
+        this.roundsRepository = roundsRepository;
+    }
+
+    /**
+     * Counters for a single round.
+     */
+    public static class RoundCapacity {
+        private final Integer roundId;
+        private volatile LocalDateTime startTime;
+        private volatile Double latitude;
+        private volatile Double longitude;
+        private final AtomicInteger confirmedVolunteers = new AtomicInteger();
+        private final AtomicInteger assignedOrders = new AtomicInteger();
+        // Reservations whose order update has not committed yet
+        private final AtomicInteger unsettled = new AtomicInteger();
+
+        RoundCapacity(Rounds round) {
+            this.roundId = round.getRoundId();
+            updateFrom(round);
+        }
+
+        void updateFrom(Rounds round) {
+            this.startTime = round.getStartTime();
+            this.latitude = round.getLatitude();
+            this.longitude = round.getLongitude();
+        }
+
+        public Integer getRoundId() {
+            return roundId;
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        public Double getLatitude() {
+            return latitude;
+        }
+
+        public Double getLongitude() {
+            return longitude;
+        }
+
+        public boolean hasCoordinates() {
+            return latitude != null && longitude != null;
+        }
+
+        public int getConfirmedVolunteers() {
+            return confirmedVolunteers.get();
+        }
+
+        public int getAssignedOrders() {
+            return assignedOrders.get();
+        }
+
+        public int getMaxOrders() {
+            return confirmedVolunteers.get() * MAX_ORDERS_PER_VOLUNTEER;
+        }
+
+        public int getRemaining() {
+            return getMaxOrders() - assignedOrders.get();
+        }
+
+        /**
+         * Take one order slot if the round is below capacity.
+         */
+        boolean tryReserve() {
+            while (true) {
+                int current = assignedOrders.get();
+                if (current >= getMaxOrders()) {
+                    return false;
+                }
+                if (assignedOrders.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Give back one order slot, never dropping below zero.
+         */
+        void release() {
+            assignedOrders.updateAndGet(current -> current > 0 ? current - 1 : 0);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // Don't block startup; the first assignment will warm the ledger instead
+            logger.error("Failed to warm round capacity ledger: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-sync all counters from the database (two queries). Existing entries are
+     * updated in place; only new rounds are added and retired ones dropped.
+     */
+    public void reload() {
+        reloadLock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Rounds> upcomingRounds = roundsRepository.findByStartTimeAfterAndStatusOrderByStartTimeAsc(now, "SCHEDULED");
+            Map<Integer, RoundsRepository.RoundCapacity> counts = new HashMap<>();
+            for (RoundsRepository.RoundCapacity capacity : roundsRepository.findUpcomingRoundCapacities(now)) {
+                counts.put(capacity.getRoundId(), capacity);
+            }
+
+            Set<Integer> liveIds = new HashSet<>();
+            for (Rounds round : upcomingRounds) {
+                RoundCapacity entry = rounds.computeIfAbsent(round.getRoundId(), id -> new RoundCapacity(round));
+                entry.updateFrom(round);
+                RoundsRepository.RoundCapacity count = counts.get(round.getRoundId());
+                int volunteers = count != null ? (int) count.getConfirmedVolunteers() : 0;
+                int orders = count != null ? (int) count.getAssignedOrders() : 0;
+                entry.confirmedVolunteers.set(volunteers);
+                // Uncommitted reservations are not in the database yet
+                entry.assignedOrders.set(orders + entry.unsettled.get());
+                liveIds.add(round.getRoundId());
+            }
+
+            rounds.keySet().retainAll(liveIds);
+            warmed = true;
+            logger.info("Round capacity ledger loaded with {} upcoming rounds", liveIds.size());
+        } finally {
+            reloadLock.writeLock().unlock();
+        }
+    }
+
+    private void ensureWarmed() {
+        if (!warmed) {
+            reload();
+        }
+    }
+
+    /**
+     * Upcoming rounds in chronological order. Rounds that have started are dropped.
+     */
+    public List<RoundCapacity> upcomingRounds() {
+        ensureWarmed();
+        LocalDateTime now = LocalDateTime.now();
+        List<RoundCapacity> upcoming = new ArrayList<>(rounds.size());
+        for (RoundCapacity capacity : rounds.values()) {
+            if (capacity.getStartTime().isAfter(now)) {
+                upcoming.add(capacity);
+            }
+        }
+        upcoming.sort(Comparator.comparing(RoundCapacity::getStartTime));
+        return upcoming;
+    }
+
+    public Optional<RoundCapacity> getRound(Integer roundId) {
+        ensureWarmed();
+        return Optional.ofNullable(rounds.get(roundId));
+    }
+
+    /**
+     * Reserve one order slot on a round. The reservation is unsettled until
+     * settleOnCompletion() sees the writing transaction finish.
+     *
+     * @return true if the slot was taken, false if the round is full or unknown
+     */
+    public boolean tryReserve(Integer roundId) {
+        reloadLock.readLock().lock();
+        try {
+            RoundCapacity capacity = rounds.get(roundId);
+            if (capacity == null || !capacity.tryReserve()) {
+                return false;
+            }
+            capacity.unsettled.incrementAndGet();
+            return true;
+        } finally {
+            reloadLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Release one order slot on a round (order moved away or assignment rolled back).
+     */
+    public void release(Integer roundId) {
+        if (roundId == null) {
+            return;
+        }
+        reloadLock.readLock().lock();
+        try {
+            RoundCapacity capacity = rounds.get(roundId);
+            if (capacity != null) {
+                capacity.release();
+            }
+        } finally {
+            reloadLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Settle reservations taken with tryReserve once their order updates are durable.
+     *
+     * @param roundIds One entry per reservation
+     * @param applied false if the orders were not written, which also releases the slots
+     */
+    public void settle(Collection<Integer> roundIds, boolean applied) {
+        reloadLock.readLock().lock();
+        try {
+            for (Integer roundId : roundIds) {
+                RoundCapacity capacity = rounds.get(roundId);
+                if (capacity == null) {
+                    continue;
+                }
+                capacity.unsettled.updateAndGet(current -> current > 0 ? current - 1 : 0);
+                if (!applied) {
+                    capacity.release();
+                }
+            }
+        } finally {
+            reloadLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Settle reservations when the current transaction completes: kept on commit,
+     * released on rollback. Without a transaction they are settled right away.
+     */
+    public void settleOnCompletion(Collection<Integer> roundIds) {
+        if (roundIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            settle(roundIds, true);
+            return;
+        }
+        List<Integer> pending = new ArrayList<>(roundIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                settle(pending, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Release slots once the current transaction commits, for orders that are moving
+     * away. Nothing is released on rollback, since the orders stay where they were.
+     * Without a transaction the slots are released right away.
+     */
+    public void releaseOnCommit(Collection<Integer> roundIds) {
+        if (roundIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            roundIds.forEach(this::release);
+            return;
+        }
+        List<Integer> pending = new ArrayList<>(roundIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.forEach(RoundCapacityLedger.this::release);
+            }
+        });
+    }
+
+    /**
+     * Record an assignment made outside the ledger (e.g. an admin override).
+     * Capacity is not checked.
+     */
+    public void recordAssignment(Integer roundId) {
+        if (roundId == null) {
+            return;
+        }
+        reloadLock.readLock().lock();
+        try {
+            RoundCapacity capacity = rounds.get(roundId);
+            if (capacity != null) {
+                capacity.assignedOrders.incrementAndGet();
+            }
+        } finally {
+            reloadLock.readLock().unlock();
+        }
+    }
+
+    public void adjustVolunteers(Integer roundId, int delta) {
+        RoundCapacity capacity = rounds.get(roundId);
+        if (capacity != null) {
+            capacity.confirmedVolunteers.updateAndGet(current -> Math.max(0, current + delta));
+        }
+    }
+
+    /**
+     * Start or stop tracking a round after it was created or edited.
+     */
+    public void trackRound(Rounds round) {
+        if (round.getRoundId() == null) {
+            return;
+        }
+        boolean upcoming = "SCHEDULED".equals(round.getStatus())
+                && round.getStartTime() != null
+                && round.getStartTime().isAfter(LocalDateTime.now());
+        if (!upcoming) {
+            rounds.remove(round.getRoundId());
+            return;
+        }
+        rounds.computeIfAbsent(round.getRoundId(), id -> new RoundCapacity(round))
+                .updateFrom(round);
+    }
+
+    public void untrackRound(Integer roundId) {
+        rounds.remove(roundId);
+    }
+
+    /**
+     * Apply volunteer count changes once the signup transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssignmentEvent(OrderAssignmentEvent event) {
+        if (event.getRoundId() != null && event.getVolunteerDelta() != 0) {
+            adjustVolunteers(event.getRoundId(), event.getVolunteerDelta());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.event.RoundCancelledEvent;
+import com.backend.streetmed_backend.repository.User.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Fans round-level notifications out to every affected volunteer.
+ *
+ * Runs on the notification executor after the triggering transaction commits, so the
+ * admin request does not wait for the roster. Recipients are looked up in batches and
+ * the message is queued for all of them at once; the outbox dispatcher then sends
+ * them under its per-minute rate limit.
+ */
+@Service
+public class RoundNotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(RoundNotificationService.class);
+
+    // Keeps the IN (...) list of the recipient lookup to a sensible size
+    private static final int LOOKUP_BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final EmailService emailService;
+
+    @Autowired
+    public RoundNotificationService(UserRepository userRepository, EmailService emailService) {
+        this.userRepository = userRepository;
+        this.emailService = emailService;
+    }
+
+    @Async("notificationExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRoundCancelled(RoundCancelledEvent event) {
+        try {
+            if (!emailService.isEmailServiceEnabled() || event.getUserIds().isEmpty()) {
+                return;
+            }
+
+            Set<String> recipients = new LinkedHashSet<>();
+            List<Integer> userIds = event.getUserIds();
+            for (int from = 0; from < userIds.size(); from += LOOKUP_BATCH_SIZE) {
+                List<Integer> chunk = userIds.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, userIds.size()));
+                recipients.addAll(userRepository.findEmailsByUserIdIn(chunk));
+            }
+            if (recipients.isEmpty()) {
+                return;
+            }
+
+            Map<String, Object> emailData = new HashMap<>();
+            emailData.put("roundTitle", event.getTitle());
+            emailData.put("startTime", event.getStartTime());
+            emailData.put("location", event.getLocation());
+            emailService.sendRoundCancellationEmails(recipients, emailData);
+
+            logger.info("Queued cancellation notices for round {} to {} volunteers",
+                    event.getRoundId(), recipients.size());
+        } catch (Exception e) {
+            logger.error("Error notifying volunteers about cancellation of round {}: {}",
+                    event.getRoundId(), e.getMessage());
+        }
+    }
+}
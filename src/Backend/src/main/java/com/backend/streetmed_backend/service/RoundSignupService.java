@@ -3,8 +3,8 @@ package com.backend.streetmed_backend.service;
 import com.backend.streetmed_backend.entity.rounds_entity.Rounds;
 import com.backend.streetmed_backend.entity.rounds_entity.RoundSignup;
 import com.backend.streetmed_backend.entity.user_entity.User;
-import com.backend.streetmed_backend.entity.user_entity.UserMetadata;
 import com.backend.streetmed_backend.entity.user_entity.VolunteerSubRole;
+import com.backend.streetmed_backend.event.OrderAssignmentEvent;
 import com.backend.streetmed_backend.repository.Rounds.RoundsRepository;
 import com.backend.streetmed_backend.repository.Rounds.RoundSignupRepository;
 import com.backend.streetmed_backend.repository.User.UserRepository;
@@ -12,13 +12,13 @@ import com.backend.streetmed_backend.repository.User.VolunteerSubRoleRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 
 @Service
 @Transactional
@@ -28,23 +28,29 @@ public class RoundSignupService {
     private final UserRepository userRepository;
     private final VolunteerSubRoleRepository volunteerSubRoleRepository;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoundAvailabilityService availabilityService;
+    private final UserProfileCache profileCache;
     private final Random random = new Random();
     private static final Logger logger = LoggerFactory.getLogger(RoundSignupService.class);
 
-    @Autowired
-    private OrderRoundAssignmentService orderRoundAssignmentService;
-
     @Autowired
     public RoundSignupService(RoundsRepository roundsRepository,
                               RoundSignupRepository roundSignupRepository,
                               UserRepository userRepository,
                               VolunteerSubRoleRepository volunteerSubRoleRepository,
-                              EmailService emailService) {
+                              EmailService emailService,
+                              ApplicationEventPublisher eventPublisher,
+                              RoundAvailabilityService availabilityService,
+                              UserProfileCache profileCache) {
         this.roundsRepository = roundsRepository;
         this.roundSignupRepository = roundSignupRepository;
         this.userRepository = userRepository;
         this.volunteerSubRoleRepository = volunteerSubRoleRepository;
         this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
+        this.availabilityService = availabilityService;
+        this.profileCache = profileCache;
     }
 
     /**
@@ -59,7 +65,38 @@ public class RoundSignupService {
      * Update a signup
      */
     public RoundSignup updateSignup(RoundSignup signup) {
-        return roundSignupRepository.save(signup);
+        RoundSignup savedSignup = roundSignupRepository.save(signup);
+
+        // The previous status isn't known here, so recount the round
+        availabilityService.recount(savedSignup.getRoundId());
+        return savedSignup;
+    }
+
+    /**
+     * Manually confirm a waitlisted signup.
+     *
+     * @throws IllegalStateException if the signup is not waitlisted
+     */
+    public RoundSignup confirmSignup(Integer signupId) {
+        RoundSignup signup = findSignupById(signupId);
+        if (!signup.isWaitlisted()) {
+            throw new IllegalStateException("Only waitlisted signups can be manually confirmed");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (roundSignupRepository.confirmWaitlisted(signupId, now) == 0) {
+            // Confirmed or cancelled by someone else since it was read
+            throw new IllegalStateException("Only waitlisted signups can be manually confirmed");
+        }
+        signup.setStatus("CONFIRMED");
+        signup.setUpdatedAt(now);
+        availabilityService.recount(signup.getRoundId());
+
+        // Only the WAITLISTED -> CONFIRMED transition adds order capacity
+        if ("VOLUNTEER".equals(signup.getRole())) {
+            eventPublisher.publishEvent(OrderAssignmentEvent.signupConfirmed(signup.getRoundId(), 1));
+        }
+        return signup;
     }
 
     /**
@@ -87,31 +124,43 @@ public class RoundSignupService {
      * Check if a round has a team lead
      */
     public boolean hasTeamLead(Integer roundId) {
-        return roundSignupRepository.hasTeamLead(roundId);
+        return availabilityService.getAvailability(roundId).hasTeamLead();
     }
 
     /**
      * Check if a round has a clinician
      */
     public boolean hasClinician(Integer roundId) {
-        return roundSignupRepository.hasClinician(roundId);
+        return availabilityService.getAvailability(roundId).hasClinician();
     }
 
     /**
      * Add user details to a signup map
      */
     public void addUserDetailsToSignup(Map<String, Object> signupDetails, Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        UserProfileCache.UserProfile profile = profileCache.getProfile(userId);
+        if (profile == null) {
+            throw new RuntimeException("User not found");
+        }
+        profile.putInto(signupDetails);
+    }
 
-        signupDetails.put("username", user.getUsername());
-        signupDetails.put("email", user.getEmail());
-        signupDetails.put("phone", user.getPhone());
+    /**
+     * Add user details to many signup maps, loading all users in one query.
+     * Each map must contain a "userId" entry; maps for unknown users are left as they are.
+     */
+    public void addUserDetailsToSignups(List<Map<String, Object>> signupDetailsList) {
+        Set<Integer> userIds = new HashSet<>();
+        for (Map<String, Object> signupDetails : signupDetailsList) {
+            userIds.add((Integer) signupDetails.get("userId"));
+        }
 
-        UserMetadata metadata = user.getMetadata();
-        if (metadata != null) {
-            signupDetails.put("firstName", metadata.getFirstName());
-            signupDetails.put("lastName", metadata.getLastName());
+        Map<Integer, UserProfileCache.UserProfile> profiles = profileCache.getProfiles(userIds);
+        for (Map<String, Object> signupDetails : signupDetailsList) {
+            UserProfileCache.UserProfile profile = profiles.get((Integer) signupDetails.get("userId"));
+            if (profile != null) {
+                profile.putInto(signupDetails);
+            }
         }
     }
 
@@ -128,34 +177,25 @@ public class RoundSignupService {
 
         // Delete the signup
         roundSignupRepository.delete(signup);
+        availabilityService.signupRemoved(signup.getRoundId(), signup.getStatus(), signup.getRole());
 
         // If this was a confirmed regular volunteer, run lottery to fill the spot
         if ("CONFIRMED".equals(signup.getStatus()) && "VOLUNTEER".equals(signup.getRole())) {
+            eventPublisher.publishEvent(OrderAssignmentEvent.signupCancelled(signup.getRoundId()));
             runLotteryForRound(signup.getRoundId());
         }
 
         // Notify the user - send email if enabled
-        try {
-            User user = userRepository.findById(signup.getUserId()).orElse(null);
-            if (user != null && user.getEmail() != null && emailService.isEmailServiceEnabled()) {
-                Map<String, Object> emailData = new HashMap<>();
-                emailData.put("roundTitle", round.getTitle());
-                emailData.put("startTime", round.getStartTime());
-                emailData.put("location", round.getLocation());
-                emailData.put("action", "removed by administrator");
-
-                // Send email notification in a non-blocking way
-                CompletableFuture.runAsync(() -> {
-                    try {
-                        emailService.sendRoundCancellationEmail(user.getEmail(), emailData);
-                    } catch (Exception e) {
-                        logger.error("Failed to send removal notification email to {}: {}",
-                                user.getEmail(), e.getMessage());
-                    }
-                });
-            }
-        } catch (Exception e) {
-            logger.error("Error notifying user {} about removal: {}", signup.getUserId(), e.getMessage());
+        User user = userRepository.findById(signup.getUserId()).orElse(null);
+        if (user != null && user.getEmail() != null && emailService.isEmailServiceEnabled()) {
+            Map<String, Object> emailData = new HashMap<>();
+            emailData.put("roundTitle", round.getTitle());
+            emailData.put("startTime", round.getStartTime());
+            emailData.put("location", round.getLocation());
+            emailData.put("action", "removed by administrator");
+
+            // Queued in the email outbox; sent once this transaction commits
+            emailService.sendRoundCancellationEmail(user.getEmail(), emailData);
         }
     }
 
@@ -166,11 +206,28 @@ public class RoundSignupService {
         return roundSignupRepository.existsByRoundIdAndUserId(roundId, userId);
     }
 
+    /**
+     * Signup summaries for many rounds from the point of view of one user, keyed by round ID.
+     * Rounds without any signups are absent from the map.
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, RoundSignupRepository.RoundSignupSummary> getSignupSummaries(Collection<Integer> roundIds,
+                                                                                     Integer userId) {
+        Map<Integer, RoundSignupRepository.RoundSignupSummary> summaries = new HashMap<>();
+        if (roundIds.isEmpty()) {
+            return summaries;
+        }
+        for (RoundSignupRepository.RoundSignupSummary summary : roundSignupRepository.findSignupSummaries(roundIds, userId)) {
+            summaries.put(summary.getRoundId(), summary);
+        }
+        return summaries;
+    }
+
     /**
      * Count confirmed volunteers for a round (excluding team lead and clinician)
      */
     public long countConfirmedVolunteersForRound(Integer roundId) {
-        return roundSignupRepository.countConfirmedVolunteersForRound(roundId);
+        return availabilityService.getAvailability(roundId).getConfirmedVolunteers();
     }
 
     /**
@@ -320,6 +377,7 @@ public class RoundSignupService {
         }
 
         RoundSignup savedSignup = roundSignupRepository.save(signup);
+        availabilityService.signupAdded(roundId, savedSignup.getStatus(), savedSignup.getRole());
 
         // Send confirmation email
         if (emailService.isEmailServiceEnabled() && user.getEmail() != null) {
@@ -330,14 +388,8 @@ public class RoundSignupService {
             emailData.put("location", round.getLocation());
             emailData.put("status", status);
 
-            // Send email notification in a non-blocking way
-            CompletableFuture.runAsync(() -> {
-                try {
-                    emailService.sendRoundSignupConfirmationEmail(user.getEmail(), emailData);
-                } catch (Exception e) {
-                    logger.error("Failed to send signup confirmation email to {}: {}", user.getEmail(), e.getMessage());
-                }
-            });
+            // Queued in the email outbox; sent once this transaction commits
+            emailService.sendRoundSignupConfirmationEmail(user.getEmail(), emailData);
         }
 
         return savedSignup;
@@ -438,28 +490,23 @@ public class RoundSignupService {
             selectedSignups.add(signup);
 
             // Send confirmation email
-            try {
-                User user = userRepository.findById(signup.getUserId()).orElse(null);
-                if (user != null && user.getEmail() != null && emailService.isEmailServiceEnabled()) {
-                    Map<String, Object> emailData = new HashMap<>();
-                    emailData.put("roundTitle", round.getTitle());
-                    emailData.put("startTime", round.getStartTime());
-                    emailData.put("location", round.getLocation());
-
-                    // Send email notification in a non-blocking way
-                    CompletableFuture.runAsync(() -> {
-                        try {
-                            emailService.sendLotteryWinEmail(user.getEmail(), emailData);
-                        } catch (Exception e) {
-                            logger.error("Failed to send lottery win email to {}: {}", user.getEmail(), e.getMessage());
-                        }
-                    });
-                }
-            } catch (Exception e) {
-                logger.error("Error notifying user {} about lottery selection: {}", signup.getUserId(), e.getMessage());
+            User user = userRepository.findById(signup.getUserId()).orElse(null);
+            if (user != null && user.getEmail() != null && emailService.isEmailServiceEnabled()) {
+                Map<String, Object> emailData = new HashMap<>();
+                emailData.put("roundTitle", round.getTitle());
+                emailData.put("startTime", round.getStartTime());
+                emailData.put("location", round.getLocation());
+
+                // Queued in the email outbox; sent once this transaction commits
+                emailService.sendLotteryWinEmail(user.getEmail(), emailData);
             }
         }
 
+        if (!selectedSignups.isEmpty()) {
+            availabilityService.volunteersPromoted(roundId, selectedSignups.size());
+            eventPublisher.publishEvent(OrderAssignmentEvent.signupConfirmed(roundId, selectedSignups.size()));
+        }
+
         return selectedSignups;
     }
 
@@ -489,14 +536,14 @@ public class RoundSignupService {
 
         // Delete the signup
         roundSignupRepository.delete(signup);
+        availabilityService.signupRemoved(roundId, signup.getStatus(), signup.getRole());
 
         // If this was a confirmed regular volunteer, run lottery to fill the spot
         if ("CONFIRMED".equals(signup.getStatus()) && "VOLUNTEER".equals(signup.getRole())) {
-            runLotteryForRound(signup.getRoundId());
+            // Queue order rebalancing for the round that lost capacity; it runs after commit
+            eventPublisher.publishEvent(OrderAssignmentEvent.signupCancelled(roundId));
+            runLotteryForRound(roundId);
         }
-
-        // After successful cancellation, trigger order rebalancing
-        orderRoundAssignmentService.handleVolunteerCancellation(roundId);
     }
 
     /**
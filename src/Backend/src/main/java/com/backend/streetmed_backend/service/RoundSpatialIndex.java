@@ -0,0 +1,187 @@
+package com.backend.streetmed_backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Uniform grid over round meeting points, built once per assignment run.
+ *
+ * Coordinates are projected onto a local plane (equirectangular, centred on the
+ * rounds) so grid cells are square in kilometres. A lookup walks rings of cells
+ * outward from the order and stops once no unvisited cell can beat the best
+ * cost found, where cost = distance in km + hours until the round x kmPerHour.
+ */
+public class RoundSpatialIndex {
+    private static final double KM_PER_DEGREE_LAT = 110.574;
+    private static final double KM_PER_DEGREE_LON_AT_EQUATOR = 111.320;
+
+    private final double cellKm;
+    private final double lonScale;
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final int minCellX, maxCellX, minCellY, maxCellY;
+    private final double minTimeCost;
+
+    private static class Entry {
+        final RoundCapacityLedger.RoundCapacity round;
+        final double x, y;
+        final double timeCost;
+
+        Entry(RoundCapacityLedger.RoundCapacity round, double x, double y, double timeCost) {
+            this.round = round;
+            this.x = x;
+            this.y = y;
+            this.timeCost = timeCost;
+        }
+    }
+
+    /**
+     * @param rounds    Candidate rounds; rounds without coordinates are ignored
+     * @param cellKm    Grid cell edge length in km
+     * @param kmPerHour How many km of extra distance one hour of waiting is worth
+     * @param now       Reference time for the time-to-round part of the cost
+     */
+    public RoundSpatialIndex(List<RoundCapacityLedger.RoundCapacity> rounds,
+                             double cellKm, double kmPerHour, LocalDateTime now) {
+        this.cellKm = cellKm;
+
+        double latSum = 0;
+        int located = 0;
+        for (RoundCapacityLedger.RoundCapacity round : rounds) {
+            if (round.hasCoordinates()) {
+                latSum += round.getLatitude();
+                located++;
+            }
+        }
+        double referenceLat = located > 0 ? latSum / located : 0;
+        this.lonScale = KM_PER_DEGREE_LON_AT_EQUATOR * Math.cos(Math.toRadians(referenceLat));
+
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        double lowestTimeCost = Double.MAX_VALUE;
+
+        for (RoundCapacityLedger.RoundCapacity round : rounds) {
+            if (!round.hasCoordinates()) {
+                continue;
+            }
+            double x = projectX(round.getLongitude());
+            double y = projectY(round.getLatitude());
+            double hours = Math.max(0, Duration.between(now, round.getStartTime()).toMinutes() / 60.0);
+            Entry entry = new Entry(round, x, y, hours * kmPerHour);
+
+            int cx = cell(x);
+            int cy = cell(y);
+            cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(entry);
+            entries.add(entry);
+
+            minX = Math.min(minX, cx);
+            maxX = Math.max(maxX, cx);
+            minY = Math.min(minY, cy);
+            maxY = Math.max(maxY, cy);
+            lowestTimeCost = Math.min(lowestTimeCost, entry.timeCost);
+        }
+
+        this.minCellX = minX;
+        this.maxCellX = maxX;
+        this.minCellY = minY;
+        this.maxCellY = maxY;
+        this.minTimeCost = cells.isEmpty() ? 0 : lowestTimeCost;
+    }
+
+    public boolean isEmpty() {
+        return cells.isEmpty();
+    }
+
+    /**
+     * Find the lowest-cost round that still has remaining capacity.
+     *
+     * @return The best round, or null if no located round has capacity
+     */
+    public RoundCapacityLedger.RoundCapacity findBest(double latitude, double longitude) {
+        if (cells.isEmpty()) {
+            return null;
+        }
+
+        double x = projectX(longitude);
+        double y = projectY(latitude);
+        int cx = cell(x);
+        int cy = cell(y);
+
+        // Far enough to cover every occupied cell from the query cell
+        int maxRing = Math.max(Math.max(Math.abs(cx - minCellX), Math.abs(cx - maxCellX)),
+                Math.max(Math.abs(cy - minCellY), Math.abs(cy - maxCellY)));
+
+        // Orders far outside the occupied area would walk mostly empty cells; a scan is cheaper
+        long cellsToWalk = (2L * maxRing + 1) * (2L * maxRing + 1);
+        if (cellsToWalk > 4L * entries.size()) {
+            return bestOf(entries, x, y);
+        }
+
+        Entry best = null;
+        double bestCost = Double.MAX_VALUE;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Anything in this ring is at least (ring - 1) cells away
+            if (best != null && Math.max(0, ring - 1) * cellKm + minTimeCost >= bestCost) {
+                break;
+            }
+
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dy = -ring; dy <= ring; dy++) {
+                    if (Math.abs(dx) != ring && Math.abs(dy) != ring) {
+                        continue; // interior cells were visited in earlier rings
+                    }
+                    List<Entry> cellEntries = cells.get(key(cx + dx, cy + dy));
+                    if (cellEntries == null) {
+                        continue;
+                    }
+                    for (Entry entry : cellEntries) {
+                        if (entry.round.getRemaining() <= 0) {
+                            continue;
+                        }
+                        double cost = Math.hypot(entry.x - x, entry.y - y) + entry.timeCost;
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            best = entry;
+                        }
+                    }
+                }
+            }
+        }
+
+        return best != null ? best.round : null;
+    }
+
+    private RoundCapacityLedger.RoundCapacity bestOf(List<Entry> candidates, double x, double y) {
+        Entry best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (Entry entry : candidates) {
+            if (entry.round.getRemaining() <= 0) {
+                continue;
+            }
+            double cost = Math.hypot(entry.x - x, entry.y - y) + entry.timeCost;
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = entry;
+            }
+        }
+        return best != null ? best.round : null;
+    }
+
+    private double projectX(double longitude) {
+        return longitude * lonScale;
+    }
+
+    private double projectY(double latitude) {
+        return latitude * KM_PER_DEGREE_LAT;
+    }
+
+    private int cell(double km) {
+        return (int) Math.floor(km / cellKm);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) ^ (cy & 0xffffffffL);
+    }
+}
@@ -1,47 +1,54 @@
 package com.backend.streetmed_backend.service;
 
+import com.backend.streetmed_backend.entity.rounds_entity.RoundAvailability;
 import com.backend.streetmed_backend.entity.rounds_entity.Rounds;
 import com.backend.streetmed_backend.entity.rounds_entity.RoundSignup;
-import com.backend.streetmed_backend.entity.user_entity.User;
+import com.backend.streetmed_backend.event.RoundCancelledEvent;
 import com.backend.streetmed_backend.repository.Rounds.RoundsRepository;
 import com.backend.streetmed_backend.repository.Rounds.RoundSignupRepository;
-import com.backend.streetmed_backend.repository.User.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 @Service
 @Transactional
 public class RoundsService {
     private final RoundsRepository roundsRepository;
     private final RoundSignupRepository roundSignupRepository;
-    private final UserRepository userRepository;
-    private final EmailService emailService;
     private final RoundSignupService roundSignupService;
+    private final RoundCapacityLedger capacityLedger;
+    private final RoundAvailabilityService availabilityService;
+    private final UserProfileCache profileCache;
+    private final ApplicationEventPublisher eventPublisher;
     private static final Logger logger = LoggerFactory.getLogger(RoundsService.class);
 
     @Autowired
     public RoundsService(RoundsRepository roundsRepository,
                          RoundSignupRepository roundSignupRepository,
-                         UserRepository userRepository,
-                         EmailService emailService,
-                         RoundSignupService roundSignupService) {
+                         RoundSignupService roundSignupService,
+                         RoundCapacityLedger capacityLedger,
+                         RoundAvailabilityService availabilityService,
+                         UserProfileCache profileCache,
+                         ApplicationEventPublisher eventPublisher) {
         this.roundsRepository = roundsRepository;
         this.roundSignupRepository = roundSignupRepository;
-        this.userRepository = userRepository;
-        this.emailService = emailService;
         this.roundSignupService = roundSignupService;
+        this.capacityLedger = capacityLedger;
+        this.availabilityService = availabilityService;
+        this.profileCache = profileCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -107,7 +114,10 @@ public class RoundsService {
         round.setUpdatedAt(LocalDateTime.now());
         round.setStatus("SCHEDULED");
 
-        return roundsRepository.save(round);
+        Rounds savedRound = roundsRepository.save(round);
+        availabilityService.initialize(savedRound.getRoundId());
+        capacityLedger.trackRound(savedRound);
+        return savedRound;
     }
 
     /**
@@ -123,6 +133,8 @@ public class RoundsService {
         existingRound.setStartTime(updatedRound.getStartTime());
         existingRound.setEndTime(updatedRound.getEndTime());
         existingRound.setLocation(updatedRound.getLocation());
+        existingRound.setLatitude(updatedRound.getLatitude());
+        existingRound.setLongitude(updatedRound.getLongitude());
         existingRound.setMaxParticipants(updatedRound.getMaxParticipants());
         existingRound.setUpdatedAt(LocalDateTime.now());
 
@@ -131,7 +143,9 @@ public class RoundsService {
             existingRound.setStatus(updatedRound.getStatus());
         }
 
-        return roundsRepository.save(existingRound);
+        Rounds savedRound = roundsRepository.save(existingRound);
+        capacityLedger.trackRound(savedRound);
+        return savedRound;
     }
 
     /**
@@ -168,36 +182,19 @@ public class RoundsService {
         round.setStatus("CANCELED");
         round.setUpdatedAt(LocalDateTime.now());
 
-        // Update all signups to canceled
-        List<RoundSignup> signups = roundSignupRepository.findByRoundId(roundId);
-        for (RoundSignup signup : signups) {
-            signup.setStatus("CANCELED");
-            signup.setUpdatedAt(LocalDateTime.now());
-            roundSignupRepository.save(signup);
-
-            // Notify user about cancellation
-            try {
-                User user = userRepository.findById(signup.getUserId()).orElse(null);
-                if (user != null && user.getEmail() != null && emailService.isEmailServiceEnabled()) {
-                    // Create a simple email notification
-                    Map<String, Object> emailData = new HashMap<>();
-                    emailData.put("roundTitle", round.getTitle());
-                    emailData.put("startTime", round.getStartTime());
-                    emailData.put("location", round.getLocation());
-                    // Send email notification in a non-blocking way
-                    CompletableFuture.runAsync(() -> {
-                        try {
-                            emailService.sendRoundCancellationEmail(user.getEmail(), emailData);
-                        } catch (Exception e) {
-                            logger.error("Failed to send round cancellation email to {}: {}", user.getEmail(), e.getMessage());
-                        }
-                    });
-                }
-            } catch (Exception e) {
-                logger.error("Error notifying user {} about round cancellation: {}", signup.getUserId(), e.getMessage());
-            }
+        // Remember who to notify, then cancel every remaining signup in one statement
+        List<Integer> notifyUserIds = roundSignupRepository.findActiveUserIdsForRound(roundId);
+        int cancelledSignups = roundSignupRepository.cancelAllForRound(roundId, LocalDateTime.now());
+        logger.info("Cancelled round {} and {} signups", roundId, cancelledSignups);
+
+        // Emails are looked up and queued by RoundNotificationService after commit
+        if (!notifyUserIds.isEmpty()) {
+            eventPublisher.publishEvent(new RoundCancelledEvent(roundId, round.getTitle(),
+                    round.getStartTime(), round.getLocation(), notifyUserIds));
         }
 
+        availabilityService.recount(roundId);
+        capacityLedger.untrackRound(roundId);
         return roundsRepository.save(round);
     }
 
@@ -210,6 +207,7 @@ public class RoundsService {
 
         round.setStatus("COMPLETED");
         round.setUpdatedAt(LocalDateTime.now());
+        capacityLedger.untrackRound(roundId);
         return roundsRepository.save(round);
     }
 
@@ -265,83 +263,57 @@ public class RoundsService {
         roundDetails.put("status", round.getStatus());
         roundDetails.put("maxParticipants", round.getMaxParticipants());
 
-        // Calculate availability
-        long confirmedVolunteers = roundSignupRepository.countConfirmedVolunteersForRound(roundId);
+        // Calculate availability from the read model
+        RoundAvailability availability = availabilityService.getAvailability(roundId);
+        long confirmedVolunteers = availability.getConfirmedVolunteers();
         int availableSlots = round.getMaxParticipants() - (int)confirmedVolunteers;
 
         roundDetails.put("confirmedVolunteers", confirmedVolunteers);
         roundDetails.put("availableSlots", availableSlots);
         roundDetails.put("openForSignup", availableSlots > 0);
 
-        // Get team lead information
-        Optional<RoundSignup> teamLeadSignup = roundSignupService.getTeamLeadForRound(roundId);
-        if (teamLeadSignup.isPresent()) {
-            Map<String, Object> teamLeadInfo = new HashMap<>();
-            Integer teamLeadId = teamLeadSignup.get().getUserId();
-            roundDetails.put("hasTeamLead", true);
-
-            try {
-                User teamLead = userRepository.findById(teamLeadId).orElse(null);
-                if (teamLead != null) {
-                    teamLeadInfo.put("userId", teamLead.getUserId());
-                    teamLeadInfo.put("username", teamLead.getUsername());
-                    teamLeadInfo.put("email", teamLead.getEmail());
-                    teamLeadInfo.put("phone", teamLead.getPhone());
-
-                    if (teamLead.getMetadata() != null) {
-                        teamLeadInfo.put("firstName", teamLead.getMetadata().getFirstName());
-                        teamLeadInfo.put("lastName", teamLead.getMetadata().getLastName());
-                    }
-
-                    roundDetails.put("teamLead", teamLeadInfo);
-                }
-            } catch (Exception e) {
-                logger.error("Error getting team lead details: {}", e.getMessage());
-                roundDetails.put("teamLeadId", teamLeadId);
-            }
-        } else {
-            roundDetails.put("hasTeamLead", false);
-        }
+        // Get team lead and clinician information, loading both users together
+        Optional<RoundSignup> teamLeadSignup = availability.hasTeamLead()
+                ? roundSignupService.getTeamLeadForRound(roundId) : Optional.empty();
+        Optional<RoundSignup> clinicianSignup = availability.hasClinician()
+                ? roundSignupService.getClinicianForRound(roundId) : Optional.empty();
 
-        // Get clinician information
-        Optional<RoundSignup> clinicianSignup = roundSignupService.getClinicianForRound(roundId);
-        if (clinicianSignup.isPresent()) {
-            Map<String, Object> clinicianInfo = new HashMap<>();
-            Integer clinicianId = clinicianSignup.get().getUserId();
-            roundDetails.put("hasClinician", true);
-
-            try {
-                User clinician = userRepository.findById(clinicianId).orElse(null);
-                if (clinician != null) {
-                    clinicianInfo.put("userId", clinician.getUserId());
-                    clinicianInfo.put("username", clinician.getUsername());
-                    clinicianInfo.put("email", clinician.getEmail());
-                    clinicianInfo.put("phone", clinician.getPhone());
-
-                    if (clinician.getMetadata() != null) {
-                        clinicianInfo.put("firstName", clinician.getMetadata().getFirstName());
-                        clinicianInfo.put("lastName", clinician.getMetadata().getLastName());
-                    }
-
-                    roundDetails.put("clinician", clinicianInfo);
-                }
-            } catch (Exception e) {
-                logger.error("Error getting clinician details: {}", e.getMessage());
-                roundDetails.put("clinicianId", clinicianId);
-            }
-        } else {
-            roundDetails.put("hasClinician", false);
-        }
+        List<Integer> staffIds = new ArrayList<>();
+        teamLeadSignup.ifPresent(signup -> staffIds.add(signup.getUserId()));
+        clinicianSignup.ifPresent(signup -> staffIds.add(signup.getUserId()));
+        Map<Integer, UserProfileCache.UserProfile> staffProfiles = staffIds.isEmpty()
+                ? Map.of() : profileCache.getProfiles(staffIds);
+
+        roundDetails.put("hasTeamLead", teamLeadSignup.isPresent());
+        teamLeadSignup.ifPresent(signup -> putStaffDetails(roundDetails, "teamLead", signup.getUserId(), staffProfiles));
+
+        roundDetails.put("hasClinician", clinicianSignup.isPresent());
+        clinicianSignup.ifPresent(signup -> putStaffDetails(roundDetails, "clinician", signup.getUserId(), staffProfiles));
 
         return roundDetails;
     }
 
+    private void putStaffDetails(Map<String, Object> roundDetails, String key, Integer userId,
+                                 Map<Integer, UserProfileCache.UserProfile> profiles) {
+        UserProfileCache.UserProfile profile = profiles.get(userId);
+        if (profile == null) {
+            logger.error("Error getting {} details: user {} not found", key, userId);
+            roundDetails.put(key + "Id", userId);
+            return;
+        }
+
+        Map<String, Object> staffInfo = new HashMap<>();
+        staffInfo.put("userId", profile.getUserId());
+        profile.putInto(staffInfo);
+        roundDetails.put(key, staffInfo);
+    }
+
     /**
      * Get all signups with user details for a round
      */
     public List<Map<String, Object>> getRoundSignupsWithUserDetails(Integer roundId) {
         List<RoundSignup> signups = roundSignupRepository.findByRoundId(roundId);
-        List<Map<String, Object>> signupsWithDetails = new java.util.ArrayList<>();
+        List<Map<String, Object>> signupsWithDetails = new ArrayList<>();
 
         for (RoundSignup signup : signups) {
             Map<String, Object> signupDetails = new HashMap<>();
@@ -355,16 +327,16 @@ public class RoundsService {
                 signupDetails.put("lotteryNumber", signup.getLotteryNumber());
             }
 
-            // Add user details
-            try {
-                roundSignupService.addUserDetailsToSignup(signupDetails, signup.getUserId());
-            } catch (Exception e) {
-                logger.error("Error adding user details for signup {}: {}", signup.getSignupId(), e.getMessage());
-            }
-
             signupsWithDetails.add(signupDetails);
         }
 
+        // Add user details for every signup with one user query
+        try {
+            roundSignupService.addUserDetailsToSignups(signupsWithDetails);
+        } catch (Exception e) {
+            logger.error("Error adding user details for round {} signups: {}", roundId, e.getMessage());
+        }
+
         return signupsWithDetails;
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.entity.user_entity.User;
+import com.backend.streetmed_backend.entity.user_entity.UserMetadata;
+import com.backend.streetmed_backend.repository.User.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of user display profiles for roster-style endpoints.
+ *
+ * Misses for a whole roster are loaded together with one JOIN FETCH query over users
+ * and user_metadata, instead of a findById plus a lazy metadata load per user.
+ * Entries expire after a short TTL; UserService also evicts users it changes.
+ */
+@Component
+public class UserProfileCache {
+    private static final int MAX_ENTRIES = 10000;
+
+    private final UserRepository userRepository;
+    private final Map<Integer, CachedProfile> profiles = new ConcurrentHashMap<>();
+
+    @Value("${users.profile-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Autowired
+    public UserProfileCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Display fields of a user, detached from JPA.
+     */
+    public static final class UserProfile {
+        private final Integer userId;
+        private final String username;
+        private final String email;
+        private final String phone;
+        private final String firstName;
+        private final String lastName;
+        private final boolean hasMetadata;
+
+        UserProfile(User user) {
+            this.userId = user.getUserId();
+            this.username = user.getUsername();
+            this.email = user.getEmail();
+            this.phone = user.getPhone();
+            UserMetadata metadata = user.getMetadata();
+            this.firstName = metadata != null ? metadata.getFirstName() : null;
+            this.lastName = metadata != null ? metadata.getLastName() : null;
+            this.hasMetadata = metadata != null;
+        }
+
+        public Integer getUserId() { return userId; }
+        public String getUsername() { return username; }
+        public String getEmail() { return email; }
+        public String getPhone() { return phone; }
+        public String getFirstName() { return firstName; }
+        public String getLastName() { return lastName; }
+
+        /**
+         * Add username, email, phone and (if present) first and last name to a response map.
+         */
+        public void putInto(Map<String, Object> target) {
+            target.put("username", username);
+            target.put("email", email);
+            target.put("phone", phone);
+            if (hasMetadata) {
+                target.put("firstName", firstName);
+                target.put("lastName", lastName);
+            }
+        }
+    }
+
+    private static final class CachedProfile {
+        final UserProfile profile;
+        final long expiresAt;
+
+        CachedProfile(UserProfile profile, long expiresAt) {
+            this.profile = profile;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Profiles for a set of users keyed by user ID; unknown users are absent from the map.
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, UserProfile> getProfiles(Collection<Integer> userIds) {
+        Map<Integer, UserProfile> result = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        long now = System.currentTimeMillis();
+
+        for (Integer userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            CachedProfile cached = profiles.get(userId);
+            if (cached != null && cached.expiresAt > now) {
+                result.put(userId, cached.profile);
+            } else {
+                missing.add(userId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            if (profiles.size() + missing.size() > MAX_ENTRIES) {
+                evictExpired(now);
+            }
+            long expiresAt = now + ttlMillis;
+            for (User user : userRepository.findAllWithMetadataByUserIdIn(missing)) {
+                UserProfile profile = new UserProfile(user);
+                result.put(profile.getUserId(), profile);
+                if (profiles.size() < MAX_ENTRIES) {
+                    profiles.put(profile.getUserId(), new CachedProfile(profile, expiresAt));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Profile of a single user, or null if the user doesn't exist.
+     */
+    @Transactional(readOnly = true)
+    public UserProfile getProfile(Integer userId) {
+        return getProfiles(List.of(userId)).get(userId);
+    }
+
+    public void evict(Integer userId) {
+        if (userId != null) {
+            profiles.remove(userId);
+        }
+    }
+
+    private void evictExpired(long now) {
+        profiles.values().removeIf(cached -> cached.expiresAt <= now);
+    }
+}
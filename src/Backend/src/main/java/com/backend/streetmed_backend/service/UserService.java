@@ -3,6 +3,7 @@ package com.backend.streetmed_backend.service;
 import com.backend.streetmed_backend.entity.user_entity.User;
 import com.backend.streetmed_backend.entity.user_entity.UserMetadata;
 import com.backend.streetmed_backend.repository.User.UserRepository;
+import com.backend.streetmed_backend.repository.User.UserRepositoryCustom;
 import com.backend.streetmed_backend.security.PasswordHash;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -10,17 +11,20 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordHash passwordHash;
+    private final UserProfileCache profileCache;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordHash passwordHash) {
+    public UserService(UserRepository userRepository, PasswordHash passwordHash, UserProfileCache profileCache) {
         this.userRepository = userRepository;
         this.passwordHash = passwordHash;
+        this.profileCache = profileCache;
     }
 
     @Transactional
@@ -99,15 +103,31 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Page through the admin user directory (users plus volunteer sub-role) in one query.
+     *
+     * @param role Only users with this role, or null for all
+     * @param afterUserId Return users with an ID greater than this (0 for the first page)
+     * @param limit Page size
+     * @param action Receives each row as it is read
+     */
+    @Transactional(readOnly = true)
+    public void forEachDirectoryEntry(String role, int afterUserId, int limit,
+                                      Consumer<UserRepositoryCustom.UserDirectoryEntry> action) {
+        userRepository.forEachDirectoryEntry(role, afterUserId, limit, action);
+    }
+
     public User updateUser(User user) {
         if (!userRepository.existsById(user.getUserId())) {
             throw new RuntimeException("User not found");
         }
+        profileCache.evict(user.getUserId());
         return userRepository.save(user);
     }
 
     public void deleteUser(Integer userId) {
         userRepository.deleteById(userId);
+        profileCache.evict(userId);
     }
 
     @Transactional
@@ -135,6 +155,7 @@ public class UserService {
         }
 
         user.setUsername(newUsername);
+        profileCache.evict(userId);
         return userRepository.save(user);
     }
 
@@ -180,6 +201,7 @@ public class UserService {
         }
 
         user.setEmail(newEmail);
+        profileCache.evict(userId);
         return userRepository.save(user);
     }
 
@@ -196,6 +218,7 @@ public class UserService {
         }
 
         user.setPhone(newPhone);
+        profileCache.evict(userId);
         return userRepository.save(user);
     }
 
@@ -217,6 +240,7 @@ public class UserService {
         }
 
         user.setEmail(newEmail);
+        profileCache.evict(userId);
         return userRepository.save(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.backend.streetmed_backend.service.email;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template part parsed once into a tree of nodes.
+ *
+ * Syntax (a small Mustache subset):
+ *   {{name}}                 value of name, or "" if missing
+ *   {{name|fallback}}        value of name, or fallback if missing
+ *   {{#name}}...{{/name}}    block rendered when name is present and truthy
+ *   {{^name}}...{{/name}}    block rendered when name is missing or falsy
+ *
+ * Values are rendered with toString(), except LocalDateTime which uses the shared
+ * date formatter. In HTML parts values are escaped.
+ */
+class CompiledTemplate {
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("MMMM d, yyyy 'at' h:mm a");
+
+    private final List<Node> nodes;
+    private final boolean escapeHtml;
+    // Literal length plus a guess per variable, so most renders never grow the buffer
+    private final int sizeHint;
+
+    private CompiledTemplate(List<Node> nodes, boolean escapeHtml) {
+        this.nodes = nodes;
+        this.escapeHtml = escapeHtml;
+        this.sizeHint = estimateSize(nodes);
+    }
+
+    String render(Map<String, ?> data) {
+        StringBuilder out = new StringBuilder(sizeHint);
+        renderNodes(nodes, data, out);
+        return out.toString();
+    }
+
+    private void renderNodes(List<Node> nodes, Map<String, ?> data, StringBuilder out) {
+        for (Node node : nodes) {
+            if (node instanceof Literal literal) {
+                out.append(literal.text);
+            } else if (node instanceof Variable variable) {
+                Object value = data.get(variable.name);
+                if (value == null) {
+                    appendValue(variable.fallback, out);
+                } else {
+                    appendValue(value instanceof LocalDateTime dateTime ? DATE_TIME_FORMAT.format(dateTime) : value.toString(), out);
+                }
+            } else if (node instanceof Section section) {
+                if (isTruthy(data.get(section.name)) != section.inverted) {
+                    renderNodes(section.children, data, out);
+                }
+            }
+        }
+    }
+
+    private void appendValue(String value, StringBuilder out) {
+        if (!escapeHtml) {
+            out.append(value);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static boolean isTruthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof CharSequence text) {
+            return text.length() > 0;
+        }
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        return true;
+    }
+
+    private static int estimateSize(List<Node> nodes) {
+        int size = 0;
+        for (Node node : nodes) {
+            if (node instanceof Literal literal) {
+                size += literal.text.length();
+            } else if (node instanceof Variable) {
+                size += 32;
+            } else if (node instanceof Section section) {
+                size += estimateSize(section.children);
+            }
+        }
+        return size;
+    }
+
+    // ---- Parsing ----
+
+    /**
+     * @throws IllegalArgumentException on unbalanced or malformed tags
+     */
+    static CompiledTemplate compile(String source, boolean escapeHtml) {
+        List<Node> root = new ArrayList<>();
+        List<List<Node>> stack = new ArrayList<>();
+        List<String> openSections = new ArrayList<>();
+        List<Node> current = root;
+
+        int pos = 0;
+        while (pos < source.length()) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) {
+                current.add(new Literal(source.substring(pos)));
+                break;
+            }
+            if (open > pos) {
+                current.add(new Literal(source.substring(pos, open)));
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed tag at offset " + open);
+            }
+            String tag = source.substring(open + 2, close).trim();
+            pos = close + 2;
+
+            if (tag.isEmpty()) {
+                throw new IllegalArgumentException("Empty tag at offset " + open);
+            }
+            char kind = tag.charAt(0);
+            if (kind == '#' || kind == '^') {
+                Section section = new Section(tag.substring(1).trim(), kind == '^');
+                current.add(section);
+                stack.add(current);
+                openSections.add(section.name);
+                current = section.children;
+            } else if (kind == '/') {
+                String name = tag.substring(1).trim();
+                if (openSections.isEmpty() || !openSections.get(openSections.size() - 1).equals(name)) {
+                    throw new IllegalArgumentException("Unexpected {{/" + name + "}} at offset " + open);
+                }
+                openSections.remove(openSections.size() - 1);
+                current = stack.remove(stack.size() - 1);
+            } else {
+                int bar = tag.indexOf('|');
+                current.add(bar < 0
+                        ? new Variable(tag, "")
+                        : new Variable(tag.substring(0, bar).trim(), tag.substring(bar + 1)));
+            }
+        }
+
+        if (!openSections.isEmpty()) {
+            throw new IllegalArgumentException("Unclosed section {{#" + openSections.get(openSections.size() - 1) + "}}");
+        }
+        return new CompiledTemplate(root, escapeHtml);
+    }
+
+    private interface Node {
+    }
+
+    private static final class Literal implements Node {
+        final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+    }
+
+    private static final class Variable implements Node {
+        final String name;
+        final String fallback;
+
+        Variable(String name, String fallback) {
+            this.name = name;
+            this.fallback = fallback;
+        }
+    }
+
+    private static final class Section implements Node {
+        final String name;
+        final boolean inverted;
+        final List<Node> children = new ArrayList<>();
+
+        Section(String name, boolean inverted) {
+            this.name = name;
+            this.inverted = inverted;
+        }
+    }
+}
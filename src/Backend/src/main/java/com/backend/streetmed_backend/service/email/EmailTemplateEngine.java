@@ -0,0 +1,112 @@
+package com.backend.streetmed_backend.service.email;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads every classpath:email-templates/*.tmpl file once at startup and compiles it.
+ *
+ * A .tmpl file has up to three parts, each introduced by a marker line:
+ *   === subject
+ *   === text
+ *   === html      (optional; when present the mail is sent as multipart/alternative)
+ * See CompiledTemplate for the tag syntax. A malformed template fails startup.
+ */
+@Component
+public class EmailTemplateEngine {
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateEngine.class);
+    private static final String TEMPLATE_LOCATION = "classpath:email-templates/*.tmpl";
+    private static final String MARKER = "=== ";
+
+    private final Map<String, EmailTemplate> templates;
+
+    private static class EmailTemplate {
+        final CompiledTemplate subject;
+        final CompiledTemplate text;
+        final CompiledTemplate html;
+
+        EmailTemplate(CompiledTemplate subject, CompiledTemplate text, CompiledTemplate html) {
+            this.subject = subject;
+            this.text = text;
+            this.html = html;
+        }
+    }
+
+    public EmailTemplateEngine() throws IOException {
+        Map<String, EmailTemplate> loaded = new HashMap<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(TEMPLATE_LOCATION);
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String name = filename.substring(0, filename.length() - ".tmpl".length());
+            try (InputStream in = resource.getInputStream()) {
+                loaded.put(name, parse(new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid email template " + filename + ": " + e.getMessage(), e);
+            }
+        }
+        this.templates = Map.copyOf(loaded);
+        logger.info("Compiled {} email templates", templates.size());
+    }
+
+    /**
+     * Render a template.
+     *
+     * @param name Template file name without the .tmpl extension
+     * @param data Values referenced by the template
+     * @throws IllegalArgumentException if there is no such template
+     */
+    public RenderedEmail render(String name, Map<String, ?> data) {
+        EmailTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown email template: " + name);
+        }
+        return new RenderedEmail(
+                template.subject.render(data).trim(),
+                template.text.render(data),
+                template.html != null ? template.html.render(data) : null);
+    }
+
+    private static EmailTemplate parse(String source) {
+        Map<String, StringBuilder> parts = new HashMap<>();
+        StringBuilder current = null;
+        for (String line : source.split("\r?\n", -1)) {
+            if (line.startsWith(MARKER)) {
+                String part = line.substring(MARKER.length()).trim();
+                if (!part.equals("subject") && !part.equals("text") && !part.equals("html")) {
+                    throw new IllegalArgumentException("Unknown part '" + part + "'");
+                }
+                current = new StringBuilder();
+                parts.put(part, current);
+            } else if (current != null) {
+                current.append(line).append('\n');
+            }
+        }
+        if (!parts.containsKey("subject") || !parts.containsKey("text")) {
+            throw new IllegalArgumentException("A template needs both a subject and a text part");
+        }
+        return new EmailTemplate(
+                CompiledTemplate.compile(stripTrailingNewlines(parts.get("subject")), false),
+                CompiledTemplate.compile(stripTrailingNewlines(parts.get("text")), false),
+                parts.containsKey("html") ? CompiledTemplate.compile(stripTrailingNewlines(parts.get("html")), true) : null);
+    }
+
+    private static String stripTrailingNewlines(StringBuilder part) {
+        int end = part.length();
+        while (end > 0 && part.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return part.substring(0, end);
+    }
+}
@@ -0,0 +1,29 @@
+package com.backend.streetmed_backend.service.email;
+
+/**
+ * Subject plus plain-text and HTML bodies of one rendered email.
+ */
+public class RenderedEmail {
+    private final String subject;
+    private final String textBody;
+    private final String htmlBody;
+
+    public RenderedEmail(String subject, String textBody, String htmlBody) {
+        this.subject = subject;
+        this.textBody = textBody;
+        this.htmlBody = htmlBody;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getTextBody() {
+        return textBody;
+    }
+
+    // Null if the template has no HTML part
+    public String getHtmlBody() {
+        return htmlBody;
+    }
+}
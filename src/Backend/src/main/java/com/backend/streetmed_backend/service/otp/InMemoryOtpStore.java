@@ -0,0 +1,165 @@
+package com.backend.streetmed_backend.service.otp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-node OtpStore.
+ *
+ * Codes and rate-limit windows live in concurrent maps, so issue and verify are single
+ * lookups. Every entry also gets a slot in a priority queue ordered by expiry time; the
+ * sweeper only pops the head of that queue, so cleanup never walks live entries. The
+ * number of outstanding codes is capped at otp.max-entries.
+ */
+@Component
+public class InMemoryOtpStore implements OtpStore {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryOtpStore.class);
+
+    private final int maxEntries;
+    private final int maxAttempts;
+    private final int maxIssuesPerWindow;
+    private final long rateWindowMillis;
+
+    private final Map<String, OtpEntry> codes = new ConcurrentHashMap<>();
+    private final Map<String, RateWindow> rateWindows = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<Expiry> expiries = new PriorityBlockingQueue<>();
+
+    public InMemoryOtpStore(@Value("${otp.max-entries:10000}") int maxEntries,
+                            @Value("${otp.max-attempts:5}") int maxAttempts,
+                            @Value("${otp.rate-limit.max-per-window:3}") int maxIssuesPerWindow,
+                            @Value("${otp.rate-limit.window-ms:900000}") long rateWindowMillis) {
+        this.maxEntries = maxEntries;
+        this.maxAttempts = maxAttempts;
+        this.maxIssuesPerWindow = maxIssuesPerWindow;
+        this.rateWindowMillis = rateWindowMillis;
+    }
+
+    private static class OtpEntry {
+        final byte[] code;
+        final long expiresAt;
+        final AtomicInteger attempts = new AtomicInteger();
+
+        OtpEntry(String code, long expiresAt) {
+            this.code = code.getBytes(StandardCharsets.UTF_8);
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private static class RateWindow {
+        final long expiresAt;
+        final AtomicInteger issued = new AtomicInteger();
+
+        RateWindow(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Removes its value from its map once due, unless the key was re-issued in the meantime
+    private static class Expiry implements Comparable<Expiry> {
+        final long at;
+        final Map<String, ?> map;
+        final String key;
+        final Object value;
+
+        Expiry(long at, Map<String, ?> map, String key, Object value) {
+            this.at = at;
+            this.map = map;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(Expiry other) {
+            return Long.compare(at, other.at);
+        }
+    }
+
+    @Override
+    public void issue(String key, String code, long ttlMillis) {
+        long now = System.currentTimeMillis();
+
+        RateWindow window = rateWindows.compute(key, (k, existing) ->
+                existing == null || existing.expiresAt <= now ? new RateWindow(now + rateWindowMillis) : existing);
+        if (window.issued.get() == 0) {
+            expiries.add(new Expiry(window.expiresAt, rateWindows, key, window));
+        }
+        if (window.issued.incrementAndGet() > maxIssuesPerWindow) {
+            throw new OtpRateLimitException("Too many recovery codes requested. Please try again later.");
+        }
+
+        if (codes.size() >= maxEntries && !codes.containsKey(key)) {
+            sweepExpired();
+            if (codes.size() >= maxEntries) {
+                logger.warn("OTP store is full ({} codes outstanding)", codes.size());
+                throw new OtpRateLimitException("Too many pending recovery requests. Please try again later.");
+            }
+        }
+
+        OtpEntry entry = new OtpEntry(code, now + ttlMillis);
+        codes.put(key, entry);
+        expiries.add(new Expiry(entry.expiresAt, codes, key, entry));
+    }
+
+    @Override
+    public VerifyResult verify(String key, String code) {
+        OtpEntry entry = codes.get(key);
+        if (entry == null) {
+            return VerifyResult.MISSING;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            codes.remove(key, entry);
+            return VerifyResult.MISSING;
+        }
+
+        if (code != null && MessageDigest.isEqual(entry.code, code.getBytes(StandardCharsets.UTF_8))) {
+            // Only one concurrent caller gets to consume the code
+            return codes.remove(key, entry) ? VerifyResult.VALID : VerifyResult.MISSING;
+        }
+
+        if (entry.attempts.incrementAndGet() >= maxAttempts) {
+            codes.remove(key, entry);
+            return VerifyResult.TOO_MANY_ATTEMPTS;
+        }
+        return VerifyResult.INVALID;
+    }
+
+    @Override
+    public void remove(String key) {
+        codes.remove(key);
+    }
+
+    /**
+     * Drop expired codes and rate windows. Only due heads of the queue are touched.
+     */
+    @Scheduled(fixedDelayString = "${otp.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        Expiry head;
+        while ((head = expiries.peek()) != null && head.at <= now) {
+            Expiry due = expiries.poll();
+            if (due == null) {
+                break;
+            }
+            if (due.at > now) {
+                // Another thread took the due head first; put this one back
+                expiries.add(due);
+                break;
+            }
+            due.map.remove(due.key, due.value);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.backend.streetmed_backend.service.otp;
+
+/**
+ * Thrown when a recovery code cannot be issued because of rate limiting or store capacity.
+ */
+public class OtpRateLimitException extends RuntimeException {
+    public OtpRateLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.backend.streetmed_backend.service.otp;
+
+/**
+ * Storage for one-time password recovery codes, keyed by (normalized) email.
+ *
+ * Implementations must be safe for concurrent use, expire codes on their own and
+ * enforce the per-key issue rate limit, so that several application nodes sharing
+ * one backend apply the same limits.
+ */
+public interface OtpStore {
+
+    enum VerifyResult {
+        VALID,
+        INVALID,
+        // No code was issued, it expired, or it was already used
+        MISSING,
+        // Too many wrong guesses; the code has been discarded
+        TOO_MANY_ATTEMPTS
+    }
+
+    /**
+     * Store a new code for the key, replacing any previous one.
+     *
+     * @throws OtpRateLimitException if the key has requested too many codes recently,
+     *                               or the store is full
+     */
+    void issue(String key, String code, long ttlMillis);
+
+    /**
+     * Check a code. A valid code is consumed; a wrong one counts as an attempt.
+     */
+    VerifyResult verify(String key, String code);
+
+    void remove(String key);
+}
@@ -0,0 +1,76 @@
+package com.backend.streetmed_backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the EXPLAIN of every hot query against an embedded H2 database in MySQL mode.
+ * H2 plans differ from MySQL's, so this only checks that each query still parses and
+ * runs against the columns it names, not which index it uses. The warning rule is
+ * checked separately on hand-built MySQL plan rows.
+ */
+class QueryPlanCheckTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:query_plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE orders (order_id INT PRIMARY KEY, round_id INT, volunteer_id INT, " +
+                "user_id INT, status VARCHAR(20), request_time TIMESTAMP, latitude DOUBLE, longitude DOUBLE)");
+        jdbcTemplate.execute("CREATE TABLE round_signups (signup_id INT PRIMARY KEY, round_id INT, " +
+                "status VARCHAR(20), role VARCHAR(20))");
+        jdbcTemplate.execute("CREATE TABLE rounds (round_id INT PRIMARY KEY, start_time TIMESTAMP, status VARCHAR(20))");
+        jdbcTemplate.execute("CREATE TABLE volunteer_sub_roles (subrole_id INT PRIMARY KEY, user_id INT)");
+    }
+
+    @Test
+    void everyHotQueryExplains() {
+        for (Map.Entry<String, Object[]> query : QueryPlanCheck.hotQueries().entrySet()) {
+            List<Map<String, Object>> plan = assertDoesNotThrow(
+                    () -> jdbcTemplate.queryForList("EXPLAIN " + query.getKey(), query.getValue()),
+                    query.getKey());
+            assertFalse(plan.isEmpty(), "No plan for " + query.getKey());
+        }
+    }
+
+    @Test
+    void fullScanIsFlaggedOnlyAboveTheRowThreshold() {
+        assertTrue(QueryPlanCheck.needsAttention(planStep("ALL", 1000L, null)));
+        assertTrue(QueryPlanCheck.needsAttention(planStep("ALL", 50000L, "Using where")));
+        assertFalse(QueryPlanCheck.needsAttention(planStep("ALL", 999L, null)));
+    }
+
+    @Test
+    void filesortIsFlaggedOnlyAboveTheRowThreshold() {
+        assertTrue(QueryPlanCheck.needsAttention(planStep("ref", 1000L, "Using where; Using filesort")));
+        assertFalse(QueryPlanCheck.needsAttention(planStep("ref", 999L, "Using where; Using filesort")));
+    }
+
+    @Test
+    void indexedStepsAndMissingRowEstimatesAreNotFlagged() {
+        assertFalse(QueryPlanCheck.needsAttention(planStep("ref", 50000L, "Using where; Using index")));
+        assertFalse(QueryPlanCheck.needsAttention(planStep("range", 50000L, null)));
+        assertFalse(QueryPlanCheck.needsAttention(planStep("ALL", null, "Using filesort")));
+    }
+
+    // One row of MySQL EXPLAIN output, with only the columns needsAttention reads
+    private static Map<String, Object> planStep(String type, Long rows, String extra) {
+        Map<String, Object> step = new HashMap<>();
+        step.put("type", type);
+        step.put("rows", rows);
+        step.put("Extra", extra);
+        return step;
+    }
+}
\ No newline at end of file
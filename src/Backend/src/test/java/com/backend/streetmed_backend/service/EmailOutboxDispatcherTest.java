@@ -0,0 +1,187 @@
+package com.backend.streetmed_backend.service;
+
+import com.backend.streetmed_backend.entity.Service_entity.OutboundEmail;
+import com.backend.streetmed_backend.repository.EmailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drains the outbox against a GreenMail SMTP server. The repository is an in-memory
+ * table behind a mock, so retry scheduling can be checked without a database.
+ */
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MS = 30_000;
+
+    private final Map<Long, OutboundEmail> table = new LinkedHashMap<>();
+    private EmailOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+        when(repository.lockDueBatch(any(), anyInt())).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return table.values().stream()
+                    .filter(e -> OutboundEmail.STATUS_PENDING.equals(e.getStatus()))
+                    .filter(e -> !e.getNextAttemptAt().isAfter(now))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        });
+        when(repository.leaseUntil(anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            LocalDateTime leaseUntil = invocation.getArgument(1);
+            ids.forEach(id -> table.get(id).setNextAttemptAt(leaseUntil));
+            return ids.size();
+        });
+        when(repository.markSent(anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            for (Long id : ids) {
+                OutboundEmail email = table.get(id);
+                email.setStatus(OutboundEmail.STATUS_SENT);
+                email.setSentAt(invocation.getArgument(1));
+                email.setAttempts(email.getAttempts() + 1);
+                email.setTextBody("");
+                email.setHtmlBody(null);
+            }
+            return ids.size();
+        });
+        when(repository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<Long>getArgument(0))));
+        when(repository.save(any(OutboundEmail.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        outboxService = new EmailOutboxService(repository, MAX_ATTEMPTS, BASE_BACKOFF_MS,
+                3_600_000, 300_000, 604_800_000);
+    }
+
+    @Test
+    void drainSendsTheBatchAndClearsBodies() throws Exception {
+        queue(1L, "alice@example.com");
+        queue(2L, "bob@example.com");
+        queue(3L, "carol@example.com");
+
+        dispatcher(greenMail.getSmtp().getPort()).drain();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Round reminder", received[0].getSubject());
+        for (OutboundEmail email : table.values()) {
+            assertEquals(OutboundEmail.STATUS_SENT, email.getStatus());
+            assertEquals(1, email.getAttempts());
+            assertEquals("", email.getTextBody());
+            assertNull(email.getHtmlBody());
+        }
+    }
+
+    @Test
+    void failedSendsBackOffExponentiallyThenGoDead() throws IOException {
+        queue(1L, "alice@example.com");
+        EmailOutboxDispatcher dispatcher = dispatcher(closedPort());
+        OutboundEmail email = table.get(1L);
+
+        // First failure: retried after the base backoff
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.drain();
+        assertEquals(OutboundEmail.STATUS_PENDING, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getLastError());
+        assertFalse(email.getNextAttemptAt().isBefore(before.plus(Duration.ofMillis(BASE_BACKOFF_MS))));
+
+        // Not due yet, so it is left alone
+        dispatcher.drain();
+        assertEquals(1, email.getAttempts());
+
+        // Second failure: the backoff doubles
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        before = LocalDateTime.now();
+        dispatcher.drain();
+        assertEquals(2, email.getAttempts());
+        assertFalse(email.getNextAttemptAt().isBefore(before.plus(Duration.ofMillis(2 * BASE_BACKOFF_MS))));
+
+        // Last allowed attempt: dead-lettered, and the message itself is dropped
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        dispatcher.drain();
+        assertEquals(OutboundEmail.STATUS_DEAD, email.getStatus());
+        assertEquals(MAX_ATTEMPTS, email.getAttempts());
+        assertEquals("", email.getTextBody());
+        assertNull(email.getHtmlBody());
+        assertEquals(1L, dispatcher.getMetrics().get("deadLettered"));
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void unbuildableMessagesAreDeadLetteredWithoutRetry() {
+        queue(1L, "alice@example.com");
+        // No address at all, so the MimeMessage cannot be built
+        queue(2L, "");
+
+        EmailOutboxDispatcher dispatcher = dispatcher(greenMail.getSmtp().getPort());
+        dispatcher.drain();
+
+        OutboundEmail invalid = table.get(2L);
+        assertEquals(OutboundEmail.STATUS_DEAD, invalid.getStatus());
+        assertEquals(1, invalid.getAttempts());
+        assertTrue(invalid.getLastError().startsWith("Invalid message"));
+        assertEquals("", invalid.getTextBody());
+        assertNull(invalid.getHtmlBody());
+        assertEquals(OutboundEmail.STATUS_SENT, table.get(1L).getStatus());
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(1L, dispatcher.getMetrics().get("deadLettered"));
+    }
+
+    @Test
+    void directSendsAreCountedApartFromQueuedOnes() throws Exception {
+        EmailOutboxDispatcher dispatcher = dispatcher(greenMail.getSmtp().getPort());
+        dispatcher.sendDirect("alice@example.com", "Password reset", "Your code is 123456", null);
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        Map<String, Object> metrics = dispatcher.getMetrics();
+        assertEquals(1L, metrics.get("directSent"));
+        assertEquals(0L, metrics.get("sent"));
+        assertEquals(0L, metrics.get("avgQueueLatencyMillis"));
+    }
+
+    private void queue(Long id, String recipient) {
+        OutboundEmail email = new OutboundEmail(recipient, "Round reminder",
+                "See you tomorrow.", "<p>See you tomorrow.</p>");
+        email.setId(id);
+        table.put(id, email);
+    }
+
+    private EmailOutboxDispatcher dispatcher(int smtpPort) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(greenMail.getSmtp().getBindTo());
+        mailSender.setPort(smtpPort);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "2000");
+        return new EmailOutboxDispatcher(outboxService, mailSender, 10, 5, 120);
+    }
+
+    // A port with nothing listening, so every send fails to connect
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
\ No newline at end of file
@@ -41,15 +41,25 @@ const Admin = ({ onLogout, userData }) => {
         }).length
       );
   
-      const ordersResp = await axios.get(`${baseURL}/api/orders/all`, {
-        params: {
-          authenticated: true,
-          userId: userData.userId,
-          userRole: "VOLUNTEER",
-        },
-      });
-      const orders = ordersResp.data.orders || [];
-      setPendingOrdersCount(orders.filter((o) => o.status === "PENDING").length);
+      // Follow nextCursor so the count is not capped at one page
+      let pendingCount = 0;
+      let cursor;
+      do {
+        const ordersResp = await axios.get(`${baseURL}/api/orders/all`, {
+          params: {
+            authenticated: true,
+            userId: userData.userId,
+            userRole: "VOLUNTEER",
+            status: "PENDING",
+            limit: 500,
+            cursor,
+          },
+        });
+        const orders = ordersResp.data.orders || [];
+        pendingCount += orders.filter((o) => o.status === "PENDING").length;
+        cursor = ordersResp.data.nextCursor || undefined;
+      } while (cursor);
+      setPendingOrdersCount(pendingCount);
   
       const appsResp = await axios.get(`${baseURL}/api/volunteer/pending`, {
         headers: {
@@ -13,17 +13,26 @@ const AdminOrders = ({ userData }) => {
 
   const loadOrders = useCallback(async (status) => {
     try {
-      const response = await axios.get(
-        `${baseURL}/api/orders/all`,
-        {
-          params: {
-            authenticated: true,
-            userId: userData.userId,
-            userRole: "VOLUNTEER"
+      // Walk every page; the server returns at most 500 orders per request
+      const fetched = [];
+      let cursor;
+      do {
+        const response = await axios.get(
+          `${baseURL}/api/orders/all`,
+          {
+            params: {
+              authenticated: true,
+              userId: userData.userId,
+              userRole: "VOLUNTEER",
+              status,
+              limit: 500,
+              cursor
+            }
           }
-        }
-      );
-      const fetched = response.data.orders || [];
+        );
+        fetched.push(...(response.data.orders || []));
+        cursor = response.data.nextCursor || undefined;
+      } while (cursor);
       setOrders(fetched.filter(o => o.status === status));
     } catch (error) {
       setOrdersError(error.response?.data?.message || error.message);
@@ -1,5 +1,5 @@
 // Home_OrderHistory.js
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useCallback } from "react";
 import axios from "axios";
 import { useNavigate } from "react-router-dom";
 import "../../css/Home/Home_OrderHistory.css";
@@ -9,38 +9,41 @@ const Home_OrderHistory = ({ userId }) => {
   const [orders, setOrders] = useState([]);
   const [ordersLoading, setOrdersLoading] = useState(false);
   const [ordersError, setOrdersError] = useState("");
+  // Cursor for the next page of history; null once everything is loaded
+  const [nextCursor, setNextCursor] = useState(null);
 
   const baseURL = process.env.REACT_APP_BASE_URL;
 
-  useEffect(() => {
-    const fetchOrders = async () => {
-      if (!userId || typeof userId !== "number") {
-        setOrdersError("Order history is not available for guest users.");
-        return;
-      }
-      try {
-        setOrdersLoading(true);
-        setOrdersError("");
-        const response = await axios.get(
-          `${baseURL}/api/orders/user/${userId}`,
-          { params: { authenticated: true, userRole: "CLIENT", userId } }
-        );
-        if (response.data.status === "success") {
-          const filtered = response.data.orders.filter((o) => o.status !== "CANCELLED");
-          setOrders(filtered);
-        } else {
-          setOrdersError(response.data.message || "Failed to load orders.");
-        }
-      } catch (error) {
-        setOrdersError(error.response?.data?.message || "Failed to load orders.");
-      } finally {
-        setOrdersLoading(false);
+  const fetchOrders = useCallback(async (cursor) => {
+    if (!userId || typeof userId !== "number") {
+      setOrdersError("Order history is not available for guest users.");
+      return;
+    }
+    try {
+      setOrdersLoading(true);
+      setOrdersError("");
+      const response = await axios.get(
+        `${baseURL}/api/orders/user/${userId}`,
+        { params: { authenticated: true, userRole: "CLIENT", userId, cursor: cursor || undefined } }
+      );
+      if (response.data.status === "success") {
+        const filtered = response.data.orders.filter((o) => o.status !== "CANCELLED");
+        setOrders((previous) => (cursor ? [...previous, ...filtered] : filtered));
+        setNextCursor(response.data.nextCursor || null);
+      } else {
+        setOrdersError(response.data.message || "Failed to load orders.");
       }
-    };
-
-    fetchOrders();
+    } catch (error) {
+      setOrdersError(error.response?.data?.message || "Failed to load orders.");
+    } finally {
+      setOrdersLoading(false);
+    }
   }, [userId, baseURL]);
 
+  useEffect(() => {
+    fetchOrders(null);
+  }, [fetchOrders]);
+
   const handleCancelOrder = async (orderId) => {
     try {
       const payload = { authenticated: true, userId, userRole: "CLIENT" };
@@ -113,6 +116,11 @@ const Home_OrderHistory = ({ userId }) => {
           ))
         )}
       </div>
+      {nextCursor && (
+        <button className="loadMoreButton" onClick={() => fetchOrders(nextCursor)} disabled={ordersLoading}>
+          {ordersLoading ? "Loading..." : "Load More"}
+        </button>
+      )}
     </div>
   );
 };
@@ -1,7 +1,7 @@
 // Home_Profile.js
 import React, { useState } from "react";
 import axios from "axios";
-import { encrypt, decrypt, getSessionId, isInitialized } from "../../security/ecdhClient";
+import { encrypt, decrypt, getSessionId, captureSessionTicket, isInitialized } from "../../security/ecdhClient";
 import { useNavigate } from "react-router-dom";
 import "../../css/Home/Home_Profile.css";
 
@@ -60,11 +60,12 @@ const Home_Profile = ({
           const response = await fetch(`${baseURL}/api/auth/update/username`, {
             method: "PUT",
             headers: {
-              "Content-Type": "text/plain",
+              "Content-Type": "application/json",
               "X-Session-ID": getSessionId(),
             },
             body: encryptedData,
           });
+          captureSessionTicket(response);
 
   
           const encryptedResponse = await response.text();
@@ -146,11 +147,12 @@ const Home_Profile = ({
           const response = await fetch(`${baseURL}/api/auth/update/email`, {
             method: "PUT",
             headers: {
-              "Content-Type": "text/plain",
+              "Content-Type": "application/json",
               "X-Session-ID": getSessionId(),
             },
             body: encryptedData,
           });
+          captureSessionTicket(response);
 
           const encryptedResponse = await response.text();
           const decryptedResponse = await decrypt(encryptedResponse);
@@ -229,11 +231,12 @@ const Home_Profile = ({
           const response = await fetch(`${baseURL}/api/auth/update/password`, {
             method: "PUT",
             headers: {
-              "Content-Type": "text/plain",
+              "Content-Type": "application/json",
               "X-Session-ID": getSessionId(),
             },
             body: encryptedData,
           });
+          captureSessionTicket(response);
 
           const encryptedResponse = await response.text();
           const decryptedResponse = await decrypt(encryptedResponse);
@@ -295,11 +298,12 @@ const Home_Profile = ({
           const response = await fetch(`${baseURL}/api/auth/update/phone`, {
             method: "PUT",
             headers: {
-              "Content-Type": "text/plain",
+              "Content-Type": "application/json",
               "X-Session-ID": getSessionId(),
             },
             body: encryptedData,
           });
+          captureSessionTicket(response);
 
           const encryptedResponse = await response.text();
           const decryptedResponse = await decrypt(encryptedResponse);
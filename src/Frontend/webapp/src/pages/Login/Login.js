@@ -1,6 +1,6 @@
 import React, { useState } from "react";
 import { useNavigate } from "react-router-dom";
-import { encrypt, decrypt, getSessionId, isInitialized } from "../../security/ecdhClient";
+import { encrypt, decrypt, getSessionId, captureSessionTicket, isInitialized } from "../../security/ecdhClient";
 import "../../css/Login/Login.css";
 import SessionErrorModal from '../../components/SessionErrorModal';
 
@@ -29,11 +29,12 @@ const Login = ({ onLoginSuccess }) => {
         const response = await fetch(`${baseURL}/api/auth/login`, {
           method: "POST",
           headers: {
-            "Content-Type": "text/plain",
+            "Content-Type": "application/json",
             "X-Session-ID": getSessionId(),
           },
           body: encryptedData,
         });
+        captureSessionTicket(response);
 
         // Add this check for network errors
         if (!response.ok) {
@@ -5,6 +5,7 @@ import {
   encrypt,
   decrypt,
   getSessionId,
+  captureSessionTicket,
   isInitialized
 } from '../../security/ecdhClient';
 import '../../css/Login/Register.css';
@@ -196,11 +197,12 @@ const Register = () => {
         const response = await fetch(`${baseURL}/api/auth/register`, {
           method: 'POST',
           headers: {
-            'Content-Type': 'text/plain',
+            'Content-Type': 'application/json',
             'X-Session-ID': getSessionId()
           },
           body: encryptedData
         });
+        captureSessionTicket(response);
 
         try {
           const encryptedResponse = await response.text();
@@ -200,6 +200,10 @@ export const performKeyExchange = async () => {
       if (!completeResponse.ok) {
         throw new Error(`Handshake completion failed: ${completeResponse.status}`);
       }
+
+      // In stateless mode the server returns a session ticket to use in place of the session ID
+      const completeData = await completeResponse.json().catch(() => ({}));
+      const activeSessionId = completeData.sessionTicket || sessionId;
       
       // Step 7: Derive shared secret
       console.log('Deriving shared secret...');
@@ -226,14 +230,14 @@ export const performKeyExchange = async () => {
       const aesKey = await initializeAESKey(sharedSecret);
       
       // Set up the security context
-      securityContext.sessionId = sessionId;
+      securityContext.sessionId = activeSessionId;
       securityContext.sharedSecret = sharedSecret;
       securityContext.aesKey = aesKey;
       securityContext.initialized = true;
       
       return {
         success: true,
-        sessionId,
+        sessionId: activeSessionId,
         sharedSecret
       };
     } catch (error) {
@@ -381,6 +385,22 @@ export const getSessionId = () => {
   return securityContext.sessionId;
 };
 
+/**
+ * Pick up a refreshed session ticket from a response. The server sends one in the
+ * X-Session-Ticket header when the current ticket is close to expiry; it replaces
+ * the session ID for all later requests.
+ */
+export const captureSessionTicket = (response) => {
+  const headers = response && response.headers;
+  if (!headers) return;
+  const ticket = typeof headers.get === 'function'
+    ? headers.get('X-Session-Ticket')
+    : headers['x-session-ticket'];
+  if (ticket) {
+    securityContext.sessionId = ticket;
+  }
+};
+
 /**
  * Check if security is initialized
  */
@@ -430,7 +450,7 @@ export const secureApiCall = async (url, method, data) => {
     
     // Prepare headers with client authentication and session ID
     const headers = {
-      'Content-Type': securityContext.aesKey ? 'text/plain' : 'application/json',
+      'Content-Type': 'application/json',
       'X-Session-ID': getSessionId(),
       'X-Client-ID': clientId,
       'X-Timestamp': timestamp,
@@ -450,6 +470,8 @@ export const secureApiCall = async (url, method, data) => {
       mode: 'cors'
     });
     
+    captureSessionTicket(response);
+    
     if (!response.ok) {
       throw new Error(`API call failed with status: ${response.status}`);
     }